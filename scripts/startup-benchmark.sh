@@ -0,0 +1,59 @@
+#!/usr/bin/env bash
+# Cold-start benchmark for a container image. For each run it starts a fresh container and
+# reports the time from `docker run` to the first successful request, and the resident set
+# size of the server process right after that request.
+#
+# Usage: scripts/startup-benchmark.sh IMAGE [docker run options...]
+#   RUNS=5 PORT=18080 scripts/startup-benchmark.sh finance-dashboard --env-file .env
+#
+# The application still needs its database; pass its settings as docker run options.
+set -euo pipefail
+
+if [[ $# -lt 1 ]]; then
+    sed -n '2,9p' "$0" | sed 's/^# \{0,1\}//'
+    exit 1
+fi
+
+IMAGE=$1
+shift
+RUNS=${RUNS:-5}
+PORT=${PORT:-18080}
+TIMEOUT_SECONDS=${TIMEOUT_SECONDS:-120}
+URL="http://localhost:${PORT}/api/auth/health"
+
+now_ms() {
+    date +%s%3N
+}
+
+startup_times=()
+rss_values=()
+for run in $(seq 1 "$RUNS"); do
+    start=$(now_ms)
+    container=$(docker run -d --rm -p "${PORT}:8080" "$@" "$IMAGE")
+    trap 'docker stop "$container" >/dev/null 2>&1 || true' EXIT
+
+    until curl -fs -o /dev/null "$URL"; do
+        if (( $(now_ms) - start > TIMEOUT_SECONDS * 1000 )); then
+            echo "run $run: no response from $URL within ${TIMEOUT_SECONDS}s" >&2
+            docker logs "$container" | tail -20 >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+    elapsed=$(( $(now_ms) - start ))
+    rss_kb=$(docker top "$container" -o rss | awk 'NR > 1 { sum += $1 } END { print sum }')
+
+    docker stop "$container" >/dev/null
+    trap - EXIT
+
+    startup_times+=("$elapsed")
+    rss_values+=("$rss_kb")
+    printf 'run %d: first request after %d ms, RSS %d MiB\n' "$run" "$elapsed" $(( rss_kb / 1024 ))
+done
+
+median() {
+    printf '%s\n' "$@" | sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+printf '%s: median first request after %d ms, median RSS %d MiB over %d runs\n' \
+    "$IMAGE" "$(median "${startup_times[@]}")" $(( $(median "${rss_values[@]}") / 1024 )) "$RUNS"
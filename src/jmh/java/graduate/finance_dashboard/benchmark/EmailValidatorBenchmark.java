@@ -0,0 +1,25 @@
+package graduate.finance_dashboard.benchmark;
+
+import graduate.finance_dashboard.config.EmailValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailValidatorBenchmark {
+
+    private final EmailValidator emailValidator = new EmailValidator();
+
+    @Param({"jan.kowalski@example.com", "not-an-email", "a-very-long-local-part.with.dots+tag@sub.domain.example.org"})
+    private String email;
+
+    @Benchmark
+    public boolean test() {
+        return emailValidator.test(email);
+    }
+}
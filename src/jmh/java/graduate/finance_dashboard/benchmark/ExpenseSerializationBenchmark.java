@@ -0,0 +1,47 @@
+package graduate.finance_dashboard.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graduate.finance_dashboard.dto.ExpenseDto;
+import graduate.finance_dashboard.model.Money;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing an expense list the way the list endpoint does, with an object mapper set up
+ * like Spring Boot's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpenseSerializationBenchmark {
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<ExpenseDto> expenses;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        expenses = new ArrayList<>(size);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < size; i++) {
+            expenses.add(new ExpenseDto((long) i, new Money(1000 + i), null, "Expense " + i,
+                    (long) (i % 10), now.minusMinutes(i), 0L));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws Exception {
+        return objectMapper.writeValueAsBytes(expenses);
+    }
+}
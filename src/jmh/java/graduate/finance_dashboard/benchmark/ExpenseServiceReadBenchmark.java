@@ -0,0 +1,89 @@
+package graduate.finance_dashboard.benchmark;
+
+import graduate.finance_dashboard.FinanceDashboardApplication;
+import graduate.finance_dashboard.TestUsers;
+import graduate.finance_dashboard.dto.CategorySummaryDto;
+import graduate.finance_dashboard.model.Category;
+import graduate.finance_dashboard.model.Expense;
+import graduate.finance_dashboard.model.User;
+import graduate.finance_dashboard.repository.CategoryRepository;
+import graduate.finance_dashboard.repository.UserRepository;
+import graduate.finance_dashboard.service.ExpenseImportService;
+import graduate.finance_dashboard.service.ExpenseService;
+import graduate.finance_dashboard.service.ExpenseSummaryService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths of {@link ExpenseService} against the in-memory test database, for a user
+ * with {@code expenses} rows spread over five categories.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExpenseServiceReadBenchmark {
+
+    @Param({"1000", "20000"})
+    private int expenses;
+
+    private ConfigurableApplicationContext context;
+    private ExpenseService expenseService;
+    private ExpenseSummaryService expenseSummaryService;
+    private User user;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplication application = new SpringApplication(FinanceDashboardApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        context = application.run("--logging.level.root=WARN");
+
+        expenseService = context.getBean(ExpenseService.class);
+        expenseSummaryService = context.getBean(ExpenseSummaryService.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        CategoryRepository categoryRepository = context.getBean(CategoryRepository.class);
+
+        user = TestUsers.create(userRepository);
+        StringBuilder ndjson = new StringBuilder();
+        for (int c = 0; c < 5; c++) {
+            categoryRepository.save(Category.builder().name("Category " + c).user(user).build());
+        }
+        LocalDateTime start = LocalDateTime.now().minusYears(2);
+        for (int i = 0; i < expenses; i++) {
+            ndjson.append("{\"amount\": \"").append(1 + i % 100).append(".99\", \"category\": \"Category ")
+                    .append(i % 5).append("\", \"date\": \"").append(start.plusHours(i)).append("\"}\n");
+        }
+        context.getBean(ExpenseImportService.class).importNdjson(user,
+                new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Expense> getExpensesByUser() {
+        return expenseService.getExpensesByUser(user);
+    }
+
+    @Benchmark
+    public List<Expense> getFirstExpensePage() {
+        return expenseService.getExpensePage(user, null, 50);
+    }
+
+    @Benchmark
+    public List<CategorySummaryDto> summarizeByCategory() {
+        return expenseSummaryService.summarizeByCategory(user, LocalDateTime.now().minusYears(3), LocalDateTime.now());
+    }
+}
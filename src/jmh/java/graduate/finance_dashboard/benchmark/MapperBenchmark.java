@@ -0,0 +1,69 @@
+package graduate.finance_dashboard.benchmark;
+
+import graduate.finance_dashboard.dto.CategoryDto;
+import graduate.finance_dashboard.dto.CategoryMapper;
+import graduate.finance_dashboard.dto.ExpenseDto;
+import graduate.finance_dashboard.dto.ExpenseMapper;
+import graduate.finance_dashboard.model.Category;
+import graduate.finance_dashboard.model.Expense;
+import graduate.finance_dashboard.model.Money;
+import graduate.finance_dashboard.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private final CategoryMapper categoryMapper = new CategoryMapper();
+
+    private Expense expense;
+    private ExpenseDto expenseDto;
+    private Category category;
+    private CategoryDto categoryDto;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = new User("Jan", "Kowalski", "jan@example.com", "secret", "jan@example.com", LocalDateTime.now());
+        user.setUser_id(1L);
+        category = Category.builder().id(2L).name("Food").user(user).build();
+        expense = Expense.builder()
+                .id(3L)
+                .amount(Money.of("12.50"))
+                .description("Lunch")
+                .category(category)
+                .user(user)
+                .createdAt(LocalDateTime.now())
+                .version(0L)
+                .build();
+        expenseDto = ExpenseMapper.toDto(expense);
+        categoryDto = categoryMapper.toDto(category);
+    }
+
+    @Benchmark
+    public ExpenseDto expenseToDto() {
+        return ExpenseMapper.toDto(expense);
+    }
+
+    @Benchmark
+    public Expense expenseToEntity() {
+        return ExpenseMapper.toEntity(expenseDto);
+    }
+
+    @Benchmark
+    public CategoryDto categoryToDto() {
+        return categoryMapper.toDto(category);
+    }
+
+    @Benchmark
+    public Category categoryToEntity() {
+        return categoryMapper.toEntity(categoryDto, user);
+    }
+}
@@ -0,0 +1,117 @@
+package graduate.finance_dashboard.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import graduate.finance_dashboard.model.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Amounts as {@link BigDecimal} against {@link Money} minor units: summing a year of
+ * expenses, validating them, and writing them as JSON numbers. Run with the GC profiler
+ * ({@code -prof gc}, the profile's default) and compare {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    @Param({"10000"})
+    private int size;
+
+    private BigDecimal[] decimals;
+    private long[] minorUnits;
+    private Money[] amounts;
+    private JsonGenerator generator;
+    private final char[] buffer = new char[Money.MAX_FORMATTED_LENGTH];
+
+    @Setup
+    public void setUp() throws IOException {
+        decimals = new BigDecimal[size];
+        minorUnits = new long[size];
+        amounts = new Money[size];
+        for (int i = 0; i < size; i++) {
+            long cents = 100 + (i * 7919L) % 100_000;
+            decimals[i] = BigDecimal.valueOf(cents, 2);
+            minorUnits[i] = cents;
+            amounts[i] = new Money(cents);
+        }
+        generator = new JsonFactory().createGenerator(OutputStream.nullOutputStream());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        generator.close();
+    }
+
+    @Benchmark
+    public BigDecimal sumDecimals() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal amount : decimals) {
+            total = total.add(amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long sumMinorUnits() {
+        long total = 0;
+        for (long amount : minorUnits) {
+            total = Math.addExact(total, amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int validateDecimals() {
+        int positive = 0;
+        for (BigDecimal amount : decimals) {
+            if (amount.signum() > 0) {
+                positive++;
+            }
+        }
+        return positive;
+    }
+
+    @Benchmark
+    public int validateAmounts() {
+        int positive = 0;
+        for (Money amount : amounts) {
+            if (amount.isPositive()) {
+                positive++;
+            }
+        }
+        return positive;
+    }
+
+    /**
+     * Decimals built per value, as read from a result set; a reused {@link BigDecimal}
+     * would serve its cached string instead.
+     */
+    @Benchmark
+    public void writeDecimals() throws IOException {
+        generator.writeStartArray();
+        for (long amount : minorUnits) {
+            generator.writeNumber(BigDecimal.valueOf(amount, 2));
+        }
+        generator.writeEndArray();
+        generator.flush();
+    }
+
+    @Benchmark
+    public void writeAmounts() throws IOException {
+        generator.writeStartArray();
+        for (long amount : minorUnits) {
+            generator.writeNumber(buffer, 0, Money.format(amount, buffer));
+        }
+        generator.writeEndArray();
+        generator.flush();
+    }
+}
@@ -1,11 +1,16 @@
 package graduate.finance_dashboard;
 
+import graduate.finance_dashboard.config.ApplicationRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 @SpringBootApplication
 @EnableTransactionManagement
+@EnableScheduling
+@ImportRuntimeHints(ApplicationRuntimeHints.class)
 public class FinanceDashboardApplication {
 
 	public static void main(String[] args) {
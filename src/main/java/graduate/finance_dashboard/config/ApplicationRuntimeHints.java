@@ -0,0 +1,93 @@
+package graduate.finance_dashboard.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import graduate.finance_dashboard.dto.CategoryDto;
+import graduate.finance_dashboard.dto.CategorySummaryDto;
+import graduate.finance_dashboard.dto.CurrencyDayTotal;
+import graduate.finance_dashboard.dto.ExpenseDto;
+import graduate.finance_dashboard.dto.ExpenseImportResultDto;
+import graduate.finance_dashboard.dto.ExpenseImportRow;
+import graduate.finance_dashboard.dto.ExpensePageDto;
+import graduate.finance_dashboard.dto.LoginRequest;
+import graduate.finance_dashboard.dto.MoneyJson;
+import graduate.finance_dashboard.dto.MonthlyCategoryTotalDto;
+import graduate.finance_dashboard.dto.PeriodSummaryDto;
+import graduate.finance_dashboard.dto.RegistrationRequest;
+import graduate.finance_dashboard.dto.RollupTotal;
+import graduate.finance_dashboard.dto.SyncChangeDto;
+import graduate.finance_dashboard.dto.SyncPageDto;
+import graduate.finance_dashboard.dto.UserPrincipal;
+import graduate.finance_dashboard.model.Category;
+import graduate.finance_dashboard.model.ChangeLogEntry;
+import graduate.finance_dashboard.model.Expense;
+import graduate.finance_dashboard.model.ExpenseRollup;
+import graduate.finance_dashboard.model.MoneyConverter;
+import graduate.finance_dashboard.model.User;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+
+import java.sql.Connection;
+import java.util.List;
+
+/**
+ * Reflection the AOT engine cannot infer from bean definitions, needed by the native
+ * image. Only used at build time, by {@code spring-boot:process-aot}.
+ * <ul>
+ *     <li>DTOs Jackson binds outside of controller signatures (import rows, export lines,
+ *     {@code Map} responses carrying them) get full binding hints, the same ones
+ *     {@link RegisterReflectionForBinding} would register.</li>
+ *     <li>JPQL {@code select new ...} projections are instantiated by Hibernate through
+ *     their public constructors.</li>
+ *     <li>Entities are Lombok classes whose builders, callbacks and private fields Hibernate
+ *     reaches reflectively.</li>
+ *     <li>{@link AdmissionControlledDataSource} hands out JDK proxies of {@link Connection}.</li>
+ *     <li>Logback creates {@link SampledDebugFilter} from {@code logback-spring.xml} and sets
+ *     its properties reflectively.</li>
+ *     <li>Hibernate instantiates {@link MoneyConverter}, and Jackson the {@link MoneyJson}
+ *     serializers named in annotations, through their constructors.</li>
+ *     <li>JCache instantiates the Caffeine provider by class name, and the provider reads
+ *     its defaults from {@code reference.conf}.</li>
+ * </ul>
+ */
+public class ApplicationRuntimeHints implements RuntimeHintsRegistrar {
+
+    static final List<Class<?>> BOUND_TYPES = List.of(
+            CategoryDto.class, ExpenseDto.class, ExpensePageDto.class, ExpenseImportRow.class,
+            ExpenseImportResultDto.class, LoginRequest.class, RegistrationRequest.class,
+            SyncChangeDto.class, SyncPageDto.class);
+
+    static final List<Class<?>> QUERY_PROJECTIONS = List.of(
+            CategorySummaryDto.class, CurrencyDayTotal.class, MonthlyCategoryTotalDto.class, PeriodSummaryDto.class,
+            RollupTotal.class, UserPrincipal.class);
+
+    static final List<Class<?>> ENTITIES = List.of(
+            User.class, Category.class, Expense.class, ExpenseRollup.class, ChangeLogEntry.class);
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        bindingRegistrar.registerReflectionHints(hints.reflection(), BOUND_TYPES.toArray(Class<?>[]::new));
+        bindingRegistrar.registerReflectionHints(hints.reflection(), QUERY_PROJECTIONS.toArray(Class<?>[]::new));
+        for (Class<?> projection : QUERY_PROJECTIONS) {
+            hints.reflection().registerType(projection, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+        for (Class<?> entity : ENTITIES) {
+            hints.reflection().registerType(entity,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS,
+                    MemberCategory.DECLARED_FIELDS);
+        }
+        hints.proxies().registerJdkProxy(Connection.class);
+        hints.reflection().registerType(SampledDebugFilter.class,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        for (Class<?> type : List.of(MoneyConverter.class, MoneyJson.Serializer.class, MoneyJson.Deserializer.class)) {
+            hints.reflection().registerType(type, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+        hints.reflection().registerType(CaffeineCachingProvider.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.resources().registerPattern("reference.conf");
+    }
+}
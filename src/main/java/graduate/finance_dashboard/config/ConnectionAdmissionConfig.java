@@ -0,0 +1,65 @@
+package graduate.finance_dashboard.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Puts an {@link AdmissionControlledDataSource} in front of the connection pool. It is on
+ * by default whenever requests run on virtual threads ({@code spring.threads.virtual.enabled}),
+ * since that is when the number of concurrent callers stops being bounded by the server's
+ * thread pool. The permit count defaults to the pool size.
+ * <p>
+ * Each Hikari pool gets its own gate, so with a read replica configured the primary and
+ * the replica are admitted separately. Data sources that only route between pools are
+ * left alone.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.admission.enabled", havingValue = "true")
+@Slf4j
+public class ConnectionAdmissionConfig {
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    static BeanPostProcessor connectionAdmissionPostProcessor(Environment environment) {
+        int configuredPermits = environment.getProperty("app.datasource.admission.max-permits", Integer.class, 0);
+        Duration timeout = environment.getProperty("app.datasource.admission.timeout", Duration.class,
+                Duration.ofSeconds(30));
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource dataSource)) {
+                    return bean;
+                }
+                int permits = configuredPermits > 0 ? configuredPermits : poolSize(dataSource);
+                log.info("Admitting at most {} concurrent connections to data source '{}'", permits, beanName);
+                return new AdmissionControlledDataSource(dataSource, permits, timeout);
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder connectionAdmissionMetrics(Map<String, DataSource> dataSources) {
+        return registry -> dataSources.forEach((beanName, dataSource) -> {
+            if (dataSource instanceof AdmissionControlledDataSource gate) {
+                gate.bindMetrics(registry, beanName);
+            }
+        });
+    }
+
+    private static int poolSize(HikariDataSource hikari) {
+        // Hikari leaves an unset maximum at -1 until the pool starts, then applies its default.
+        return hikari.getMaximumPoolSize() > 0 ? hikari.getMaximumPoolSize() : DEFAULT_POOL_SIZE;
+    }
+}
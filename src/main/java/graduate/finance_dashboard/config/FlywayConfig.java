@@ -0,0 +1,30 @@
+package graduate.finance_dashboard.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@Slf4j
+public class FlywayConfig {
+
+    /**
+     * Migrates on startup as usual, except during the class data sharing training run in
+     * the Docker build ({@code app.startup.training-run}), which only refreshes the context
+     * to record the classes it loads and has no database to migrate. A strategy bean rather
+     * than {@code spring.flyway.enabled}, because with AOT processing the Flyway beans are
+     * fixed at build time and that property is no longer consulted.
+     */
+    @Bean
+    FlywayMigrationStrategy flywayMigrationStrategy(@Value("${app.startup.training-run:false}") boolean trainingRun) {
+        return flyway -> {
+            if (trainingRun) {
+                log.info("Training run: skipping database migrations");
+                return;
+            }
+            flyway.migrate();
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package graduate.finance_dashboard.config;
+
+import graduate.finance_dashboard.service.InvalidationTransport;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Delivers invalidations between application contexts in the same JVM, synchronously on
+ * the sending thread, like a NOTIFY channel that never loses a message. Meant for tests
+ * that stand up several nodes, or a probe next to one.
+ */
+public class InMemoryInvalidationTransport implements InvalidationTransport {
+
+    private static final Map<String, List<Receiver>> CHANNELS = new ConcurrentHashMap<>();
+
+    private final List<Receiver> subscribers;
+    private volatile Receiver receiver;
+
+    public InMemoryInvalidationTransport(String channel) {
+        this.subscribers = CHANNELS.computeIfAbsent(channel, key -> new CopyOnWriteArrayList<>());
+    }
+
+    @Override
+    public void send(String payload) {
+        for (Receiver subscriber : subscribers) {
+            subscriber.receive(payload);
+        }
+    }
+
+    @Override
+    public void start(Receiver receiver) {
+        this.receiver = receiver;
+        subscribers.add(receiver);
+    }
+
+    @Override
+    public void close() {
+        subscribers.remove(receiver);
+    }
+}
@@ -0,0 +1,38 @@
+package graduate.finance_dashboard.config;
+
+import graduate.finance_dashboard.service.InvalidationBus;
+import graduate.finance_dashboard.service.InvalidationTransport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Picks the {@link InvalidationTransport} for the {@link InvalidationBus} by
+ * {@code app.invalidation.transport}: {@code postgres} when several nodes share the
+ * database, {@code memory} for tests, and {@code none} (the default) for a single node,
+ * which leaves the bus idle.
+ */
+@Configuration
+public class InvalidationTransportConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.invalidation.transport", havingValue = "postgres")
+    InvalidationTransport postgresInvalidationTransport(DataSource dataSource, DataSourceProperties properties,
+                                                        @Value("${app.invalidation.channel:cache_invalidation}") String channel,
+                                                        @Value("${app.invalidation.poll-timeout:1s}") Duration pollTimeout) {
+        return new PostgresInvalidationTransport(dataSource, properties.determineUrl(),
+                properties.determineUsername(), properties.determinePassword(), channel, pollTimeout);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.invalidation.transport", havingValue = "memory")
+    InvalidationTransport inMemoryInvalidationTransport(
+            @Value("${app.invalidation.channel:cache_invalidation}") String channel) {
+        return new InMemoryInvalidationTransport(channel);
+    }
+}
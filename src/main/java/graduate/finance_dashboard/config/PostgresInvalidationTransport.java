@@ -0,0 +1,127 @@
+package graduate.finance_dashboard.config;
+
+import graduate.finance_dashboard.service.InvalidationTransport;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+/**
+ * Exchanges invalidations over a PostgreSQL {@code LISTEN}/{@code NOTIFY} channel, so
+ * the nodes need nothing but the database they already share.
+ * <p>
+ * Notifications are sent through the pool. Listening takes one connection of its own,
+ * opened outside the pool and polled by a daemon thread. PostgreSQL keeps no
+ * notifications for a listener that was not connected, so after every (re)connect the
+ * receiver is told to resync; a lost connection is retried with a growing delay.
+ */
+@Slf4j
+public class PostgresInvalidationTransport implements InvalidationTransport {
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String channel;
+    private final int pollMillis;
+    private volatile boolean running;
+    private volatile Connection listenConnection;
+    private Thread listener;
+
+    public PostgresInvalidationTransport(DataSource dataSource, String url, String username, String password,
+                                         String channel, Duration pollTimeout) {
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalStateException("app.invalidation.channel must be a lower-case SQL identifier: " + channel);
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.channel = channel;
+        this.pollMillis = Math.toIntExact(pollTimeout.toMillis());
+    }
+
+    @Override
+    public void send(String payload) {
+        jdbcTemplate.queryForObject("select pg_notify(?, ?)", Object.class, channel, payload);
+    }
+
+    @Override
+    public synchronized void start(Receiver receiver) {
+        running = true;
+        listener = new Thread(() -> listen(receiver), "invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    private void listen(Receiver receiver) {
+        long backoffMillis = 100;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                listenConnection = connection;
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                log.info("Listening for cache invalidations on channel {}", channel);
+                receiver.resync();
+                backoffMillis = 100;
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        receiver.receive(notification.getParameter());
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    break;
+                }
+                log.warn("Invalidation listener lost its connection, retrying in {} ms", backoffMillis, e);
+                sleep(backoffMillis);
+                backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF.toMillis());
+            } finally {
+                listenConnection = null;
+            }
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        Connection connection = listenConnection;
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                log.debug("Failed to close the invalidation listener connection", e);
+            }
+        }
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+}
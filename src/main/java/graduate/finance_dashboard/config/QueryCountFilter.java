@@ -0,0 +1,61 @@
+package graduate.finance_dashboard.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many statements each request issued as {@code http.server.requests.queries},
+ * tagged like {@code http.server.requests} by method and route template. A route whose
+ * count creeps up after a change has gained an N+1 or lost a fetch join.
+ * <p>
+ * Only the statements issued on the request thread are counted; bodies written later
+ * on another thread, such as streamed exports and event streams, are not.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private static final String UNKNOWN_ROUTE = "UNKNOWN";
+
+    private final QueryCounter queryCounter;
+    private final Meter.MeterProvider<DistributionSummary> queries;
+
+    public QueryCountFilter(QueryCounter queryCounter, MeterRegistry registry) {
+        this.queryCounter = queryCounter;
+        this.queries = DistributionSummary.builder("http.server.requests.queries")
+                .description("SQL statements issued by Hibernate while handling a request")
+                .baseUnit("statements")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(1000.0)
+                .withRegistry(registry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        queryCounter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int count = queryCounter.stop();
+            queries.withTags("method", request.getMethod(), "uri", route(request)).record(count);
+        }
+    }
+
+    private static String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : UNKNOWN_ROUTE;
+    }
+}
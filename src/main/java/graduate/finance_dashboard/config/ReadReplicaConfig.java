@@ -0,0 +1,107 @@
+package graduate.finance_dashboard.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Sends read-only transactions to a read replica and everything else to the primary.
+ * <p>
+ * The application's {@link DataSource} is a {@link LazyConnectionDataSourceProxy} that
+ * fetches the physical connection only when the first statement runs. By then the
+ * transaction manager has marked the connection read-only for
+ * {@code @Transactional(readOnly = true)}, and such connections come from a
+ * {@link ReplicaRoutingDataSource}, which picks the replica unless it is lagging or the
+ * caller wrote within {@code read-your-writes-window}. Flyway migrates the primary.
+ * <p>
+ * Recent writers are remembered per instance, so stickiness only holds when a user's
+ * requests reach the instance that served the write.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+@Slf4j
+public class ReadReplicaConfig {
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    HikariDataSource replicaDataSource(DataSourceProperties primary,
+                                       @Value("${app.datasource.replica.url:}") String url,
+                                       @Value("${app.datasource.replica.username:}") String username,
+                                       @Value("${app.datasource.replica.password:}") String password) {
+        if (!StringUtils.hasText(url)) {
+            throw new IllegalStateException("app.datasource.replica.url must be set when the read replica is enabled");
+        }
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(primary.determineDriverClassName())
+                .url(url)
+                .username(StringUtils.hasText(username) ? username : primary.determineUsername())
+                .password(StringUtils.hasText(password) ? password : primary.determinePassword())
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replica,
+                                        @Value("${app.datasource.replica.lag-query:}") String lagQuery,
+                                        @Value("${app.datasource.replica.max-lag:5s}") Duration maxLag) {
+        return new ReplicaLagMonitor(replica,
+                StringUtils.hasText(lagQuery) ? lagQuery : ReplicaLagMonitor.POSTGRES_LAG_QUERY, maxLag);
+    }
+
+    @Bean
+    RecentWriters recentWriters(@Value("${app.datasource.replica.read-your-writes-window:10s}") Duration window,
+                                @Value("${app.datasource.replica.max-lag:5s}") Duration maxLag,
+                                @Value("${app.datasource.replica.lag-check-ms:1000}") long lagCheckMs,
+                                @Value("${app.datasource.replica.read-your-writes-max-users:100000}") long maxUsers) {
+        // Reads leave the primary only while the replica is at most max-lag behind, as of
+        // a reading up to one check old; a write older than both is on the replica.
+        if (window.compareTo(maxLag.plusMillis(lagCheckMs)) < 0) {
+            throw new IllegalStateException(
+                    "app.datasource.replica.read-your-writes-window must cover max-lag plus lag-check-ms");
+        }
+        return new RecentWriters(window, maxUsers);
+    }
+
+    @Bean
+    ReplicaRoutingDataSource replicaRoutingDataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                                      @Qualifier("replicaDataSource") DataSource replica,
+                                                      ReplicaLagMonitor lagMonitor, RecentWriters recentWriters) {
+        return new ReplicaRoutingDataSource(primary, replica, lagMonitor, recentWriters);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                          ReplicaRoutingDataSource replicaRoutingDataSource) {
+        log.info("Routing read-only transactions to the read replica");
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        return dataSource;
+    }
+}
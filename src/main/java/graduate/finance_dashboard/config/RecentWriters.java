@@ -0,0 +1,48 @@
+package graduate.finance_dashboard.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graduate.finance_dashboard.service.CategoryChangedEvent;
+import graduate.finance_dashboard.service.ExpenseChangedEvent;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+
+/**
+ * Users who changed their data within the last {@code window}. Their reads go to the
+ * primary, so a dashboard reloaded right after a save shows the save even while the
+ * replica is still replaying it.
+ * <p>
+ * Writers are marked when the change event is published, inside the writing transaction,
+ * so there is no gap between the commit and the mark. A write that later rolls back keeps
+ * its author on the primary for one window, which costs nothing but a little replica use.
+ */
+public class RecentWriters {
+
+    private final Cache<Long, Boolean> writers;
+
+    public RecentWriters(Duration window, long maxSize) {
+        this.writers = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    public void markWrite(Long userId) {
+        writers.put(userId, Boolean.TRUE);
+    }
+
+    public boolean wroteRecently(Long userId) {
+        return writers.getIfPresent(userId) != null;
+    }
+
+    @EventListener
+    void onExpenseChanged(ExpenseChangedEvent event) {
+        markWrite(event.userId());
+    }
+
+    @EventListener
+    void onCategoryChanged(CategoryChangedEvent event) {
+        markWrite(event.userId());
+    }
+}
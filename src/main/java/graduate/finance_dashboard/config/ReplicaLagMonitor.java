@@ -0,0 +1,85 @@
+package graduate.finance_dashboard.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Polls the replica for how far it trails the primary. Until the first successful check,
+ * and whenever a check fails or reports no lag at all, the replica counts as behind and
+ * reads stay on the primary.
+ * <p>
+ * The lag query must return the lag in seconds, or null when it cannot tell. The default
+ * one is for a PostgreSQL streaming replica: zero when everything received has been
+ * replayed, otherwise the age of the last replayed transaction. Run against a primary it
+ * returns null, so a misconfigured replica URL falls back instead of serving reads.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements MeterBinder {
+
+    public static final String POSTGRES_LAG_QUERY = """
+            select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                        else extract(epoch from now() - pg_last_xact_replay_timestamp()) end""";
+
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private volatile Duration lag;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, Duration maxLag) {
+        this.replica = new JdbcTemplate(replica);
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-ms:1000}")
+    public void check() {
+        Duration measured;
+        try {
+            Number seconds = replica.queryForObject(lagQuery, Number.class);
+            measured = seconds != null ? Duration.ofMillis(Math.round(seconds.doubleValue() * 1000)) : null;
+        } catch (DataAccessException e) {
+            log.debug("Replica lag check failed", e);
+            measured = null;
+        }
+        recordLag(measured);
+    }
+
+    /**
+     * Whether reads must avoid the replica: its lag is unknown or above {@code max-lag}.
+     */
+    public boolean isBehind() {
+        Duration current = lag;
+        return current == null || current.compareTo(maxLag) > 0;
+    }
+
+    void recordLag(Duration measured) {
+        boolean wasBehind = isBehind();
+        lag = measured;
+        boolean behind = isBehind();
+        if (behind && !wasBehind) {
+            log.warn("Replica is {} behind, routing reads to the primary",
+                    measured != null ? measured : "an unknown time");
+        } else if (!behind && wasBehind) {
+            log.info("Replica caught up (lag {}), routing reads to it", measured);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("datasource.replica.lag", this, monitor -> {
+                    Duration current = monitor.lag;
+                    return current != null ? current.toMillis() / 1000.0 : Double.NaN;
+                })
+                .description("How far the read replica trails the primary; NaN when unknown")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+}
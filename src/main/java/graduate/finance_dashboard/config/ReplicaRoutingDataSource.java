@@ -0,0 +1,82 @@
+package graduate.finance_dashboard.config;
+
+import graduate.finance_dashboard.dto.AuthenticatedUser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Where read-only transactions get their connection: the replica, unless it is lagging
+ * or the caller wrote recently, in which case the primary. Read-write transactions never
+ * get here, see {@link ReadReplicaConfig}.
+ * <p>
+ * The caller is the authenticated user of the current request thread. Work without one,
+ * such as scheduled jobs, reads from the replica whenever it is up to date.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder {
+
+    enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final RecentWriters recentWriters;
+    private Counter primaryReads;
+    private Counter replicaReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica,
+                                    ReplicaLagMonitor lagMonitor, RecentWriters recentWriters) {
+        this.lagMonitor = lagMonitor;
+        this.recentWriters = recentWriters;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Target target = chooseTarget();
+        Counter reads = target == Target.REPLICA ? replicaReads : primaryReads;
+        if (reads != null) {
+            reads.increment();
+        }
+        return target;
+    }
+
+    Target chooseTarget() {
+        if (lagMonitor.isBehind()) {
+            return Target.PRIMARY;
+        }
+        Long userId = currentUserId();
+        if (userId != null && recentWriters.wroteRecently(userId)) {
+            return Target.PRIMARY;
+        }
+        return Target.REPLICA;
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user
+                ? user.id()
+                : null;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        primaryReads = Counter.builder("datasource.reads")
+                .description("Read-only connections handed out, by the pool that served them")
+                .tag("target", "primary")
+                .register(registry);
+        replicaReads = Counter.builder("datasource.reads")
+                .description("Read-only connections handed out, by the pool that served them")
+                .tag("target", "replica")
+                .register(registry);
+    }
+}
@@ -0,0 +1,39 @@
+package graduate.finance_dashboard.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Writes only a random fraction of the DEBUG events of loggers under {@code packageName}.
+ * The per-request trace lines are logged at DEBUG; switching that level on in production
+ * then yields a representative sample instead of a line per request. Other levels and
+ * other loggers pass through untouched. Configured in {@code logback-spring.xml}.
+ */
+public class SampledDebugFilter extends TurboFilter {
+
+    private String packageName = "graduate.finance_dashboard";
+    private double sampleRate = 1.0;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // Checked level first: with DEBUG off this filter must cost next to nothing.
+        if (level != Level.DEBUG || logger.getEffectiveLevel().toInt() > Level.DEBUG_INT
+                || !logger.getName().startsWith(packageName)) {
+            return FilterReply.NEUTRAL;
+        }
+        return ThreadLocalRandom.current().nextDouble() < sampleRate ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public void setPackageName(String packageName) {
+        this.packageName = packageName;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+}
@@ -0,0 +1,86 @@
+package graduate.finance_dashboard.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks at startup that the indexes the hot queries depend on exist, so that a database
+ * whose migrations did not run fully is noticed before it turns into sequential scans.
+ */
+@Component
+@Slf4j
+public class SchemaIndexVerifier implements ApplicationRunner {
+
+    static final Map<String, List<String>> EXPECTED_INDEXES = Map.of(
+            "expense", List.of("idx_expense_user_created_id", "idx_expense_user_category_created"),
+            "users", List.of("uq_users_email"),
+            "category", List.of("uq_category_user_name"),
+            "change_log", List.of("idx_change_log_user_seq", "idx_change_log_user_entity_seq"));
+
+    private final DataSource dataSource;
+    private final boolean failOnMissing;
+
+    public SchemaIndexVerifier(DataSource dataSource,
+                               @Value("${app.schema.fail-on-missing-index:false}") boolean failOnMissing) {
+        this.dataSource = dataSource;
+        this.failOnMissing = failOnMissing;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws SQLException {
+        List<String> missing = findMissingIndexes();
+        if (missing.isEmpty()) {
+            log.info("All expected indexes are present");
+            return;
+        }
+
+        log.warn("Missing database indexes: {}", missing);
+        if (failOnMissing) {
+            throw new IllegalStateException("Missing database indexes: " + missing);
+        }
+    }
+
+    List<String> findMissingIndexes() throws SQLException {
+        List<String> missing = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (Map.Entry<String, List<String>> table : EXPECTED_INDEXES.entrySet()) {
+                Set<String> present = indexNames(metaData, connection.getSchema(), table.getKey());
+                for (String index : table.getValue()) {
+                    if (!present.contains(index)) {
+                        missing.add(table.getKey() + "." + index);
+                    }
+                }
+            }
+        }
+        return missing;
+    }
+
+    private static Set<String> indexNames(DatabaseMetaData metaData, String schema, String table) throws SQLException {
+        Set<String> names = new HashSet<>();
+        try (ResultSet indexes = metaData.getIndexInfo(null, schema, table, false, true)) {
+            while (indexes.next()) {
+                String name = indexes.getString("INDEX_NAME");
+                if (name != null) {
+                    names.add(name.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return names;
+    }
+}
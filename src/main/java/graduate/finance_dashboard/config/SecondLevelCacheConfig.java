@@ -0,0 +1,69 @@
+package graduate.finance_dashboard.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import graduate.finance_dashboard.model.Category;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate's second-level cache, held in-process by Caffeine behind the JCache API.
+ * Hibernate talks to it through its JCache region factory, so another JSR-107 provider
+ * can be plugged in by building a different {@link CacheManager} here.
+ * <p>
+ * Only regions created here exist; an entity marked cacheable without one fails startup.
+ * The {@value Category#CACHE_REGION} region is bounded by entry count. Hibernate keeps it
+ * in step with every insert, update and delete made through the entity manager, while a
+ * JPQL bulk delete of categories empties it.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    CacheManager secondLevelCacheManager(@Value("${app.category-cache.max-entries:100000}") long maxEntries,
+                                         @Value("${app.category-cache.ttl:1h}") Duration ttl) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // A manager of its own per application context; the provider's default one is a
+        // JVM-wide singleton.
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("finance-dashboard:" + UUID.randomUUID()), provider.getDefaultClassLoader());
+        cacheManager.createCache(Category.CACHE_REGION, new CaffeineConfiguration<>()
+                .setStoreByValue(false)
+                .setNativeStatisticsEnabled(true)
+                .setExpireAfterWrite(OptionalLong.of(ttl.toNanos()))
+                .setMaximumSize(OptionalLong.of(maxEntries)));
+        return cacheManager;
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer secondLevelCacheProperties(CacheManager secondLevelCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    @Bean
+    MeterBinder secondLevelCacheMetrics(CacheManager secondLevelCacheManager) {
+        return registry -> CaffeineCacheMetrics.monitor(registry,
+                secondLevelCacheManager.getCache(Category.CACHE_REGION)
+                        .unwrap(com.github.benmanes.caffeine.cache.Cache.class),
+                Category.CACHE_REGION);
+    }
+}
@@ -1,29 +1,99 @@
 package graduate.finance_dashboard.config;
 
+import graduate.finance_dashboard.service.SessionTokenService;
+import graduate.finance_dashboard.service.UserService;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.config.Customizer;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    /**
+     * Raising the strength only affects new hashes; existing ones are upgraded the next
+     * time their owner logs in.
+     */
     @Bean
-    public BCryptPasswordEncoder bCryptPasswordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BCryptPasswordEncoder bCryptPasswordEncoder(@Value("${app.security.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
+    /**
+     * Actuator endpoints other than health, including the Prometheus scrape endpoint, need
+     * HTTP basic credentials of the configured admin user ({@code spring.security.user}).
+     * The admin password is kept in plain text in the environment, so it is checked with
+     * its own provider instead of the BCrypt encoder used for user passwords.
+     */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    @Order(1)
+    public SecurityFilterChain actuatorSecurityFilterChain(
+            HttpSecurity http,
+            @Value("${spring.security.user.name}") String adminName,
+            @Value("${spring.security.user.password}") String adminPassword) throws Exception {
+        DaoAuthenticationProvider adminProvider =
+                new DaoAuthenticationProvider(PasswordEncoderFactories.createDelegatingPasswordEncoder());
+        adminProvider.setUserDetailsService(new InMemoryUserDetailsManager(User.withUsername(adminName)
+                .password("{noop}" + adminPassword)
+                .roles("ADMIN")
+                .build()));
+
+        http
+            .securityMatcher(EndpointRequest.toAnyEndpoint())
+            .csrf(AbstractHttpConfigurer::disable)
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .authenticationProvider(adminProvider)
+            .httpBasic(Customizer.withDefaults())
+            .authorizeHttpRequests(requests -> requests
+                .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                .anyRequest().hasRole("ADMIN")
+            );
+
+        return http.build();
+    }
+
+    /**
+     * API requests must carry a session token issued by {@code /api/auth/login}; there is
+     * no server-side session.
+     */
+    @Bean
+    public SecurityFilterChain securityFilterChain(
+            HttpSecurity http,
+            SessionTokenService sessionTokenService,
+            UserService userService,
+            @Value("${app.security.legacy-email-header:false}") boolean legacyEmailHeader) throws Exception {
         http
             .cors(Customizer.withDefaults())
             .csrf(AbstractHttpConfigurer::disable)
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .addFilterBefore(new SessionTokenFilter(sessionTokenService, userService, legacyEmailHeader),
+                    UsernamePasswordAuthenticationFilter.class)
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
+            )
             .authorizeHttpRequests(requests -> requests
+                // Completing a long-lived event stream re-dispatches it; it was authorized on the way in.
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                .requestMatchers("/api/auth/**").permitAll()
+                .requestMatchers("/api/**").authenticated()
                 .anyRequest().permitAll()
             );
 
@@ -0,0 +1,73 @@
+package graduate.finance_dashboard.config;
+
+import graduate.finance_dashboard.dto.AuthenticatedUser;
+import graduate.finance_dashboard.exception.ApiException;
+import graduate.finance_dashboard.service.SessionTokenService;
+import graduate.finance_dashboard.service.UserService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Authenticates API requests from an {@code Authorization: Bearer} session token. Requests
+ * without a valid token are passed on unauthenticated and rejected by the authorization
+ * rules. While {@code legacyEmailHeader} is enabled, a request without a token may still
+ * identify itself with the old {@code Email} header so that clients can migrate.
+ * <p>
+ * Browsers cannot set headers on an {@code EventSource}, so the event stream alone also
+ * accepts the token as an {@code access_token} query parameter.
+ */
+public class SessionTokenFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    static final String EVENTS_PATH = "/api/events";
+
+    private final SessionTokenService sessionTokenService;
+    private final UserService userService;
+    private final boolean legacyEmailHeader;
+
+    public SessionTokenFilter(SessionTokenService sessionTokenService, UserService userService,
+                              boolean legacyEmailHeader) {
+        this.sessionTokenService = sessionTokenService;
+        this.userService = userService;
+        this.legacyEmailHeader = legacyEmailHeader;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        resolve(request).ifPresent(user -> SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of())));
+        chain.doFilter(request, response);
+    }
+
+    private Optional<AuthenticatedUser> resolve(HttpServletRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.startsWith(BEARER_PREFIX)) {
+            return sessionTokenService.verify(authorization.substring(BEARER_PREFIX.length()).trim());
+        }
+        String accessToken = request.getParameter("access_token");
+        if (accessToken != null && EVENTS_PATH.equals(request.getRequestURI())) {
+            return sessionTokenService.verify(accessToken);
+        }
+
+        String email = legacyEmailHeader ? request.getHeader("Email") : null;
+        if (email != null) {
+            try {
+                return Optional.of(new AuthenticatedUser(userService.getPrincipalByEmail(email).id()));
+            } catch (ApiException e) {
+                return Optional.empty();
+            }
+        }
+        return Optional.empty();
+    }
+}
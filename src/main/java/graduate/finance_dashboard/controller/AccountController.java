@@ -0,0 +1,52 @@
+package graduate.finance_dashboard.controller;
+
+import graduate.finance_dashboard.dto.AuthenticatedUser;
+import graduate.finance_dashboard.dto.BaseCurrencyDto;
+import graduate.finance_dashboard.service.UserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/account")
+@RequiredArgsConstructor
+@Slf4j
+public class AccountController {
+
+    private final UserService userService;
+
+    /**
+     * Deletes the caller's account with all of its categories and expenses. Session tokens
+     * issued earlier stay verifiable until they expire, but every write made with them is
+     * rejected with 401 and every read returns nothing.
+     */
+    @DeleteMapping
+    public ResponseEntity<Void> deleteAccount(@AuthenticationPrincipal AuthenticatedUser caller) {
+        log.debug("Received request to delete account: userId={}", caller.id());
+        userService.deleteAccount(caller.id());
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/base-currency")
+    public ResponseEntity<BaseCurrencyDto> getBaseCurrency(@AuthenticationPrincipal AuthenticatedUser caller) {
+        return ResponseEntity.ok(new BaseCurrencyDto(userService.getBaseCurrency(caller.id())));
+    }
+
+    /**
+     * Changes the currency summaries are converted into. Expenses recorded without a
+     * currency keep their value: they are given the previous base currency.
+     */
+    @PutMapping("/base-currency")
+    public ResponseEntity<BaseCurrencyDto> setBaseCurrency(@RequestBody BaseCurrencyDto request,
+                                                           @AuthenticationPrincipal AuthenticatedUser caller) {
+        log.debug("Received request to change base currency: userId={}, currency={}", caller.id(), request.getCurrency());
+        return ResponseEntity.ok(new BaseCurrencyDto(userService.setBaseCurrency(caller.id(), request.getCurrency())));
+    }
+}
@@ -3,7 +3,9 @@ package graduate.finance_dashboard.controller;
 import graduate.finance_dashboard.dto.LoginRequest;
 import graduate.finance_dashboard.dto.RegistrationRequest;
 import graduate.finance_dashboard.model.User;
+import graduate.finance_dashboard.service.SessionTokenService;
 import graduate.finance_dashboard.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,19 +19,25 @@ import java.util.Map;
 public class AuthController {
 
     private final UserService userService;
+    private final SessionTokenService sessionTokenService;
 
     @PostMapping("/register")
-    public ResponseEntity<Map<String, String>> register(@RequestBody RegistrationRequest request) {
-        String result = userService.register(request);
+    public ResponseEntity<Map<String, String>> register(@RequestBody RegistrationRequest request,
+                                                        HttpServletRequest httpRequest) {
+        String result = userService.register(request, httpRequest.getRemoteAddr());
         Map<String, String> response = new HashMap<>();
         response.put("message", result);
         return ResponseEntity.ok(response);
     }
 
     @PostMapping("/login")
-    public ResponseEntity<Map<String, String>> login(@RequestBody LoginRequest request) {
-        User user = userService.login(request);
+    public ResponseEntity<Map<String, String>> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        User user = userService.login(request, httpRequest.getRemoteAddr());
+        SessionTokenService.IssuedToken token = sessionTokenService.issue(user.getUser_id());
         Map<String, String> response = new HashMap<>();
+        response.put("token", token.token());
+        response.put("tokenType", "Bearer");
+        response.put("expiresAt", token.expiresAt().toString());
         response.put("email", user.getEmail());
         response.put("firstName", user.getFirstName());
         response.put("lastName", user.getLastName());
@@ -1,17 +1,23 @@
 package graduate.finance_dashboard.controller;
 
+import graduate.finance_dashboard.dto.AuthenticatedUser;
 import graduate.finance_dashboard.dto.CategoryDto;
 import graduate.finance_dashboard.dto.CategoryMapper;
+import graduate.finance_dashboard.exception.ApiException;
 import graduate.finance_dashboard.model.Category;
 import graduate.finance_dashboard.model.User;
 import graduate.finance_dashboard.service.CategoryService;
+import graduate.finance_dashboard.service.CollectionVersions;
 import graduate.finance_dashboard.service.UserService;
-import graduate.finance_dashboard.exception.ApiException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -25,59 +31,77 @@ import org.slf4j.LoggerFactory;
 @Transactional
 public class CategoryController {
 
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final CategoryService categoryService;
     private final UserService userService;
     private final CategoryMapper categoryMapper;
+    private final CollectionVersions collectionVersions;
     private static final Logger log = LoggerFactory.getLogger(CategoryController.class);
 
-    private User getUserByEmailOrThrow(String email) {
-        User user = userService.getUserByEmail(email);
-        if (user == null) {
-            throw new ApiException("User with email " + email + " not found", HttpStatus.NOT_FOUND);
-        }
-        return user;
-    }
-
     @PostMapping
-    public ResponseEntity<CategoryDto> createCategory(@RequestBody CategoryDto categoryDto, @RequestHeader("Email") String email) {
-        User user = getUserByEmailOrThrow(email);
+    public ResponseEntity<CategoryDto> createCategory(@RequestBody CategoryDto categoryDto, @AuthenticationPrincipal AuthenticatedUser caller) {
+        User user = userService.getUserReference(caller.id());
         Category category = categoryMapper.toEntity(categoryDto, user);
         Category createdCategory = categoryService.createCategory(category, user);
         return ResponseEntity.ok(categoryMapper.toDto(createdCategory));
     }
 
+    /**
+     * Conditional on the version of the user's category collection, like
+     * {@link ExpenseController#getUserExpenses}.
+     */
     @GetMapping
-    public ResponseEntity<List<CategoryDto>> getUserCategories(@RequestHeader("Email") String email) {
-        User user = getUserByEmailOrThrow(email);
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public ResponseEntity<List<CategoryDto>> getUserCategories(@AuthenticationPrincipal AuthenticatedUser caller,
+                                                               WebRequest webRequest) {
+        String etag = collectionVersions.etag(CollectionVersions.Collection.CATEGORIES, caller.id());
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        User user = userService.getUserReference(caller.id());
         List<Category> categories = categoryService.getCategoriesByUser(user);
-        return ResponseEntity.ok(categories.stream().map(categoryMapper::toDto).collect(Collectors.toList()));
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(REVALIDATE)
+                .body(categories.stream().map(categoryMapper::toDto).collect(Collectors.toList()));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<CategoryDto> getCategory(@PathVariable Long id, @RequestHeader("Email") String email) {
-        getUserByEmailOrThrow(email);
+    @Transactional(readOnly = true)
+    public ResponseEntity<CategoryDto> getCategory(@PathVariable Long id, @AuthenticationPrincipal AuthenticatedUser caller) {
+        User user = userService.getUserReference(caller.id());
         Category category = categoryService.getCategoryById(id);
-        return ResponseEntity.ok(categoryMapper.toDto(category));
+
+        if (!category.getUser().getUser_id().equals(user.getUser_id())) {
+            throw new ApiException("You don't have access to this category", HttpStatus.FORBIDDEN);
+        }
+
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(category.getVersion()))
+                .cacheControl(REVALIDATE)
+                .body(categoryMapper.toDto(category));
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<CategoryDto> updateCategory(
             @PathVariable Long id,
             @RequestBody CategoryDto categoryDto,
-            @RequestHeader("Email") String email) {
-        User user = getUserByEmailOrThrow(email);
+            @AuthenticationPrincipal AuthenticatedUser caller) {
+        User user = userService.getUserReference(caller.id());
         Category category = categoryMapper.toEntity(categoryDto, user);
         Category updatedCategory = categoryService.updateCategory(id, category, user);
         return ResponseEntity.ok(categoryMapper.toDto(updatedCategory));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteCategory(@PathVariable Long id, @RequestHeader("Email") String email) {
-        log.info("Received request to delete category: id={}, email={}", id, email);
-        User user = getUserByEmailOrThrow(email);
-        log.info("Found user: id={}", user.getUser_id());
+    public ResponseEntity<Void> deleteCategory(@PathVariable Long id, @AuthenticationPrincipal AuthenticatedUser caller) {
+        log.debug("Received request to delete category: id={}, userId={}", id, caller.id());
+        User user = userService.getUserReference(caller.id());
+        log.debug("Found user: id={}", user.getUser_id());
         categoryService.deleteCategory(id, user);
-        log.info("Category successfully deleted: id={}", id);
+        log.debug("Category successfully deleted: id={}", id);
         return ResponseEntity.noContent().build();
     }
 }
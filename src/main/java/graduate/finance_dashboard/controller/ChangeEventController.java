@@ -0,0 +1,29 @@
+package graduate.finance_dashboard.controller;
+
+import graduate.finance_dashboard.dto.AuthenticatedUser;
+import graduate.finance_dashboard.service.ChangeNotificationHub;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-Sent Events stream of the caller's changes. Each event names the collection that
+ * changed ({@code expenses} or {@code categories}); clients then fetch the delta from
+ * {@code /api/sync}, including after a reconnect.
+ */
+@RestController
+@RequestMapping("/api/events")
+@RequiredArgsConstructor
+public class ChangeEventController {
+
+    private final ChangeNotificationHub changeNotificationHub;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@AuthenticationPrincipal AuthenticatedUser caller) {
+        return changeNotificationHub.subscribe(caller.id());
+    }
+}
@@ -1,22 +1,38 @@
 package graduate.finance_dashboard.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graduate.finance_dashboard.dto.AuthenticatedUser;
+import graduate.finance_dashboard.dto.ExpenseCursor;
 import graduate.finance_dashboard.dto.ExpenseDto;
+import graduate.finance_dashboard.dto.ExpenseImportResultDto;
 import graduate.finance_dashboard.dto.ExpenseMapper;
+import graduate.finance_dashboard.dto.ExpensePageDto;
 import graduate.finance_dashboard.exception.ApiException;
 import graduate.finance_dashboard.model.Category;
 import graduate.finance_dashboard.model.Expense;
 import graduate.finance_dashboard.model.User;
 import graduate.finance_dashboard.service.CategoryService;
+import graduate.finance_dashboard.service.CollectionVersions;
+import graduate.finance_dashboard.service.ExpenseImportService;
 import graduate.finance_dashboard.service.ExpenseService;
 import graduate.finance_dashboard.service.UserService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -28,31 +44,31 @@ import java.util.stream.Collectors;
 @Transactional
 public class ExpenseController {
 
+    public static final String NDJSON = "application/x-ndjson";
+    public static final String CSV = "text/csv";
+
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final ExpenseService expenseService;
     private final UserService userService;
     private final CategoryService categoryService;
-
-    private User getUserByEmailOrThrow(String email) {
-        User user = userService.getUserByEmail(email);
-        if (user == null) {
-            throw new ApiException("User not found with email " + email, HttpStatus.NOT_FOUND);
-        }
-        return user;
-    }
+    private final ExpenseImportService expenseImportService;
+    private final ObjectMapper objectMapper;
+    private final CollectionVersions collectionVersions;
 
     @PostMapping
-    public ResponseEntity<ExpenseDto> createExpense(@RequestBody ExpenseDto expenseDto, @RequestHeader("Email") String email) {
-        log.info("Creating expense: amount={}, category={}, description={}", 
+    public ResponseEntity<ExpenseDto> createExpense(@RequestBody ExpenseDto expenseDto, @AuthenticationPrincipal AuthenticatedUser caller) {
+        log.debug("Creating expense: amount={}, category={}, description={}", 
             expenseDto.getAmount(), expenseDto.getCategoryId(), expenseDto.getDescription());
         
-        if (expenseDto.getAmount() == null || expenseDto.getAmount().signum() <= 0) {
+        if (expenseDto.getAmount() == null || !expenseDto.getAmount().isPositive()) {
             throw new ApiException("Amount must be greater than zero", HttpStatus.BAD_REQUEST);
         }
         if (expenseDto.getCategoryId() == null) {
             throw new ApiException("Category is required", HttpStatus.BAD_REQUEST);
         }
 
-        User user = getUserByEmailOrThrow(email);
+        User user = userService.getUserReference(caller.id());
         Category category = categoryService.getCategoryById(expenseDto.getCategoryId());
         
         if (!category.getUser().getUser_id().equals(user.getUser_id())) {
@@ -64,37 +80,112 @@ public class ExpenseController {
             expense.setCategory(category);
             expense.setUser(user);
             Expense createdExpense = expenseService.createExpense(expense, user);
-            log.info("Successfully created expense with ID: {}", createdExpense.getId());
+            log.debug("Successfully created expense with ID: {}", createdExpense.getId());
             return ResponseEntity.ok(ExpenseMapper.toDto(createdExpense));
+        } catch (ApiException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error creating expense: {}", e.getMessage());
             throw new ApiException("Failed to create expense", HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    /**
+     * Bulk import of a CSV file with a header line ({@code amount,description,category,date}).
+     * The body is parsed as it arrives; rejected rows are reported by line number.
+     */
+    @PostMapping(value = "/import", consumes = CSV)
+    public ResponseEntity<ExpenseImportResultDto> importCsv(InputStream body, @AuthenticationPrincipal AuthenticatedUser caller) {
+        User user = userService.getUserReference(caller.id());
+        return ResponseEntity.ok(expenseImportService.importCsv(user, body));
+    }
+
+    @PostMapping(value = "/import", consumes = NDJSON)
+    public ResponseEntity<ExpenseImportResultDto> importNdjson(InputStream body, @AuthenticationPrincipal AuthenticatedUser caller) {
+        User user = userService.getUserReference(caller.id());
+        return ResponseEntity.ok(expenseImportService.importNdjson(user, body));
+    }
+
+    /**
+     * Tagged with the version of the user's expense collection. A request whose
+     * {@code If-None-Match} still matches gets 304 before any query runs; the method joins
+     * no transaction, so such a request does not even borrow a connection.
+     */
     @GetMapping
-    public ResponseEntity<List<ExpenseDto>> getUserExpenses(@RequestHeader("Email") String email) {
-        User user = getUserByEmailOrThrow(email);
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public ResponseEntity<List<ExpenseDto>> getUserExpenses(@AuthenticationPrincipal AuthenticatedUser caller,
+                                                            WebRequest webRequest) {
+        String etag = collectionVersions.etag(CollectionVersions.Collection.EXPENSES, caller.id());
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        User user = userService.getUserReference(caller.id());
         List<Expense> expenses = expenseService.getExpensesByUser(user);
-        return ResponseEntity.ok(expenses.stream().map(ExpenseMapper::toDto).collect(Collectors.toList()));
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(REVALIDATE)
+                .body(expenses.stream().map(ExpenseMapper::toDto).collect(Collectors.toList()));
+    }
+
+    @GetMapping(produces = NDJSON)
+    @Transactional(readOnly = true)
+    public void streamUserExpenses(@AuthenticationPrincipal AuthenticatedUser caller, HttpServletResponse response)
+            throws IOException {
+        User user = userService.getUserReference(caller.id());
+        response.setContentType(NDJSON);
+
+        try (JsonGenerator generator = objectMapper.createGenerator(response.getOutputStream())) {
+            expenseService.forEachExpenseByUser(user, expense -> {
+                try {
+                    generator.writeObject(ExpenseMapper.toDto(expense));
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    @GetMapping("/page")
+    @Transactional(readOnly = true)
+    public ResponseEntity<ExpensePageDto> getUserExpensePage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @AuthenticationPrincipal AuthenticatedUser caller) {
+        User user = userService.getUserReference(caller.id());
+        ExpenseCursor after = cursor != null && !cursor.isBlank() ? ExpenseCursor.decode(cursor) : null;
+        List<Expense> expenses = expenseService.getExpensePage(user, after, limit);
+
+        String nextCursor = expenses.size() == limit
+                ? ExpenseCursor.of(expenses.get(expenses.size() - 1)).encode()
+                : null;
+        return ResponseEntity.ok(new ExpensePageDto(
+                expenses.stream().map(ExpenseMapper::toDto).collect(Collectors.toList()),
+                nextCursor));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ExpenseDto> getExpense(@PathVariable Long id, @RequestHeader("Email") String email) {
-        User user = getUserByEmailOrThrow(email);
+    @Transactional(readOnly = true)
+    public ResponseEntity<ExpenseDto> getExpense(@PathVariable Long id, @AuthenticationPrincipal AuthenticatedUser caller) {
+        User user = userService.getUserReference(caller.id());
         Expense expense = expenseService.getExpenseById(id);
 
         if (!expense.getUser().getUser_id().equals(user.getUser_id())) {
             throw new ApiException("You don't have access to this expense", HttpStatus.FORBIDDEN);
         }
 
-        return ResponseEntity.ok(ExpenseMapper.toDto(expense));
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(expense.getVersion()))
+                .cacheControl(REVALIDATE)
+                .body(ExpenseMapper.toDto(expense));
     }
 
     @GetMapping("/category/{categoryId}")
+    @Transactional(readOnly = true)
     public ResponseEntity<List<ExpenseDto>> getExpensesByCategory(
-            @PathVariable Long categoryId, @RequestHeader("Email") String email) {
-        User user = getUserByEmailOrThrow(email);
+            @PathVariable Long categoryId, @AuthenticationPrincipal AuthenticatedUser caller) {
+        User user = userService.getUserReference(caller.id());
         Category category = categoryService.getCategoryById(categoryId);
         
         if (!category.getUser().getUser_id().equals(user.getUser_id())) {
@@ -106,66 +197,52 @@ public class ExpenseController {
     }
 
     @GetMapping("/date-range")
+    @Transactional(readOnly = true)
     public ResponseEntity<List<ExpenseDto>> getExpensesByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
-            @RequestHeader("Email") String email) {
-        User user = getUserByEmailOrThrow(email);
+            @AuthenticationPrincipal AuthenticatedUser caller) {
+        User user = userService.getUserReference(caller.id());
         List<Expense> expenses = expenseService.getExpensesByUserAndDateRange(user, start, end);
         return ResponseEntity.ok(expenses.stream().map(ExpenseMapper::toDto).collect(Collectors.toList()));
     }
 
-    @PutMapping("/{id}")
+    /**
+     * Updates the expense in place. PUT and PATCH share partial semantics: fields left out
+     * of the body keep their stored values. Sending the {@code version} from a previous
+     * response makes the update fail with 409 if someone else changed the expense since.
+     */
+    @RequestMapping(value = "/{id}", method = {RequestMethod.PUT, RequestMethod.PATCH})
     public ResponseEntity<ExpenseDto> updateExpense(
-            @PathVariable Long id, @RequestBody ExpenseDto expenseDto, @RequestHeader("Email") String email) {
-        log.info("Updating expense: id={}, amount={}, category={}, description={}", 
+            @PathVariable Long id, @RequestBody ExpenseDto expenseDto, @AuthenticationPrincipal AuthenticatedUser caller) {
+        log.debug("Updating expense: id={}, amount={}, category={}, description={}", 
             id, expenseDto.getAmount(), expenseDto.getCategoryId(), expenseDto.getDescription());
 
-        User user = getUserByEmailOrThrow(email);
-        Expense existingExpense = expenseService.getExpenseById(id);
-
-        if (!existingExpense.getUser().getUser_id().equals(user.getUser_id())) {
-            throw new ApiException("You don't have access to this expense", HttpStatus.FORBIDDEN);
-        }
-
-        Expense newExpense = new Expense();
-        newExpense.setAmount(existingExpense.getAmount());
-        newExpense.setDescription(existingExpense.getDescription());
-        newExpense.setUser(user);
-        newExpense.setCreatedAt(existingExpense.getCreatedAt());
+        User user = userService.getUserReference(caller.id());
 
-        if (expenseDto.getAmount() != null) {
-            if (expenseDto.getAmount().signum() <= 0) {
-                throw new ApiException("Amount must be greater than zero", HttpStatus.BAD_REQUEST);
-            }
-            newExpense.setAmount(expenseDto.getAmount());
-        }
-
-        if (expenseDto.getDescription() != null) {
-            newExpense.setDescription(expenseDto.getDescription());
-        }
+        Expense changes = new Expense();
+        changes.setAmount(expenseDto.getAmount());
+        changes.setCurrency(expenseDto.getCurrency());
+        changes.setDescription(expenseDto.getDescription());
 
         if (expenseDto.getCategoryId() != null) {
             Category newCategory = categoryService.getCategoryById(expenseDto.getCategoryId());
             if (!newCategory.getUser().getUser_id().equals(user.getUser_id())) {
                 throw new ApiException("You don't have access to this category", HttpStatus.FORBIDDEN);
             }
-            newExpense.setCategory(newCategory);
-        } else {
-            newExpense.setCategory(existingExpense.getCategory());
+            changes.setCategory(newCategory);
         }
 
-        expenseService.deleteExpense(id, user);
-        Expense savedExpense = expenseService.createExpense(newExpense, user);
-        log.info("Successfully updated expense: old_id={}, new_id={}", id, savedExpense.getId());
-        return ResponseEntity.ok(ExpenseMapper.toDto(savedExpense));
+        Expense updatedExpense = expenseService.updateExpense(id, changes, expenseDto.getVersion(), user);
+        log.debug("Successfully updated expense: id={}, version={}", id, updatedExpense.getVersion());
+        return ResponseEntity.ok(ExpenseMapper.toDto(updatedExpense));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteExpense(@PathVariable Long id, @RequestHeader("Email") String email) {
-        log.info("Deleting expense: id={}", id);
+    public ResponseEntity<Void> deleteExpense(@PathVariable Long id, @AuthenticationPrincipal AuthenticatedUser caller) {
+        log.debug("Deleting expense: id={}", id);
         
-        User user = getUserByEmailOrThrow(email);
+        User user = userService.getUserReference(caller.id());
         Expense expense = expenseService.getExpenseById(id);
 
         if (!expense.getUser().getUser_id().equals(user.getUser_id())) {
@@ -173,7 +250,7 @@ public class ExpenseController {
         }
 
         expenseService.deleteExpense(id, user);
-        log.info("Successfully deleted expense with ID: {}", id);
+        log.debug("Successfully deleted expense with ID: {}", id);
         return ResponseEntity.noContent().build();
     }
 }
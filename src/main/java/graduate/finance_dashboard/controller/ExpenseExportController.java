@@ -0,0 +1,64 @@
+package graduate.finance_dashboard.controller;
+
+import graduate.finance_dashboard.dto.AuthenticatedUser;
+import graduate.finance_dashboard.dto.ExpenseExportFormat;
+import graduate.finance_dashboard.exception.ApiException;
+import graduate.finance_dashboard.model.Category;
+import graduate.finance_dashboard.service.CategoryService;
+import graduate.finance_dashboard.service.ExpenseExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Full-history exports. Deliberately not transactional: the export service opens a short
+ * transaction per window of rows instead of one spanning the whole download.
+ */
+@RestController
+@RequestMapping("/api/expenses/export")
+@RequiredArgsConstructor
+public class ExpenseExportController {
+
+    private final ExpenseExportService expenseExportService;
+    private final CategoryService categoryService;
+
+    @GetMapping
+    public void export(
+            @RequestParam(defaultValue = "CSV") ExpenseExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @AuthenticationPrincipal AuthenticatedUser caller,
+            HttpServletResponse response) throws IOException {
+        if (categoryId != null) {
+            Category category = categoryService.getCategoryById(categoryId);
+            if (!category.getUser().getUser_id().equals(caller.id())) {
+                throw new ApiException("You don't have access to this category", HttpStatus.FORBIDDEN);
+            }
+        }
+
+        response.setContentType(format.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"expenses." + format.getFileExtension() + "\"");
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        OutputStream out = response.getOutputStream();
+        if (gzip) {
+            out = new GZIPOutputStream(out, 64 * 1024);
+        }
+        expenseExportService.export(
+                new ExpenseExportService.Filter(caller.id(), categoryId, start, end), format, out);
+    }
+}
@@ -0,0 +1,58 @@
+package graduate.finance_dashboard.controller;
+
+import graduate.finance_dashboard.dto.AuthenticatedUser;
+import graduate.finance_dashboard.dto.CategorySummaryDto;
+import graduate.finance_dashboard.dto.MonthlyCategoryTotalDto;
+import graduate.finance_dashboard.dto.PeriodSummaryDto;
+import graduate.finance_dashboard.dto.SummaryBucket;
+import graduate.finance_dashboard.model.User;
+import graduate.finance_dashboard.service.ExpenseSummaryService;
+import graduate.finance_dashboard.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/expenses/summary")
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ExpenseSummaryController {
+
+    private final ExpenseSummaryService expenseSummaryService;
+    private final UserService userService;
+
+    @GetMapping("/categories")
+    public ResponseEntity<List<CategorySummaryDto>> summarizeByCategory(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @AuthenticationPrincipal AuthenticatedUser caller) {
+        User user = userService.getUserReference(caller.id());
+        return ResponseEntity.ok(expenseSummaryService.summarizeByCategory(user, start, end));
+    }
+
+    @GetMapping("/periods")
+    public ResponseEntity<List<PeriodSummaryDto>> summarizeByPeriod(
+            @RequestParam(defaultValue = "MONTH") SummaryBucket bucket,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @AuthenticationPrincipal AuthenticatedUser caller) {
+        User user = userService.getUserReference(caller.id());
+        return ResponseEntity.ok(expenseSummaryService.summarizeByPeriod(user, bucket, start, end));
+    }
+
+    @GetMapping("/monthly")
+    public ResponseEntity<List<MonthlyCategoryTotalDto>> getMonthlyTotals(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @AuthenticationPrincipal AuthenticatedUser caller) {
+        User user = userService.getUserReference(caller.id());
+        return ResponseEntity.ok(expenseSummaryService.getMonthlyTotals(user, from, to));
+    }
+}
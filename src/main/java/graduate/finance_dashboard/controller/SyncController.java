@@ -0,0 +1,29 @@
+package graduate.finance_dashboard.controller;
+
+import graduate.finance_dashboard.dto.AuthenticatedUser;
+import graduate.finance_dashboard.dto.SyncPageDto;
+import graduate.finance_dashboard.service.ChangeLogService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Delta sync: a client keeps the {@code next} value of its last response and asks only
+ * for what changed after it. {@code since=0} returns the current state of everything.
+ */
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+public class SyncController {
+
+    private final ChangeLogService changeLogService;
+
+    @GetMapping
+    public ResponseEntity<SyncPageDto> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int limit,
+            @AuthenticationPrincipal AuthenticatedUser caller) {
+        return ResponseEntity.ok(changeLogService.getChanges(caller.id(), since, limit));
+    }
+}
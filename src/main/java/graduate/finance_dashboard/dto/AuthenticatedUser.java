@@ -0,0 +1,8 @@
+package graduate.finance_dashboard.dto;
+
+/**
+ * The caller of an API request, as established by a verified session token. Only the id
+ * is carried; anything else about the user is read when it is actually needed.
+ */
+public record AuthenticatedUser(Long id) {
+}
@@ -0,0 +1,13 @@
+package graduate.finance_dashboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BaseCurrencyDto {
+    /** ISO 4217 code summaries are converted into. */
+    private String currency;
+}
@@ -6,4 +6,5 @@ import lombok.Data;
 public class CategoryDto {
     private Long id;
     private String name;
+    private Long version;
 }
@@ -11,6 +11,7 @@ public class CategoryMapper {
         CategoryDto dto = new CategoryDto();
         dto.setId(category.getId());
         dto.setName(category.getName());
+        dto.setVersion(category.getVersion());
         return dto;
     }
 
@@ -0,0 +1,37 @@
+package graduate.finance_dashboard.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+@Data
+@NoArgsConstructor
+public class CategorySummaryDto {
+    private Long categoryId;
+    private String categoryName;
+    private BigDecimal total;
+    private long count;
+    private BigDecimal min;
+    private BigDecimal max;
+    private BigDecimal average;
+
+    public CategorySummaryDto(Long categoryId, String categoryName, BigDecimal total, Long count,
+                              BigDecimal min, BigDecimal max) {
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        this.total = total;
+        this.count = count;
+        this.min = min;
+        this.max = max;
+        this.average = average(total, count);
+    }
+
+    static BigDecimal average(BigDecimal total, long count) {
+        if (total == null || count == 0) {
+            return null;
+        }
+        return total.divide(BigDecimal.valueOf(count), Math.max(total.scale(), 2), RoundingMode.HALF_UP);
+    }
+}
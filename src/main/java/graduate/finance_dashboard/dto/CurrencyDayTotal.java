@@ -0,0 +1,18 @@
+package graduate.finance_dashboard.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Totals of one category's expenses in one foreign currency on one day; the rows
+ * summaries convert into the user's base currency.
+ */
+public record CurrencyDayTotal(Long categoryId, String categoryName, String currency, LocalDate day,
+                               BigDecimal total, long count, BigDecimal min, BigDecimal max) {
+
+    public CurrencyDayTotal(Long categoryId, String categoryName, String currency, LocalDateTime day,
+                            BigDecimal total, Long count, BigDecimal min, BigDecimal max) {
+        this(categoryId, categoryName, currency, day.toLocalDate(), total, count, min, max);
+    }
+}
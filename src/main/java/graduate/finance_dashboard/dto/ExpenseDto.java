@@ -1,9 +1,11 @@
 package graduate.finance_dashboard.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import graduate.finance_dashboard.model.Money;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -11,8 +13,14 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class ExpenseDto {
     private Long id;
-    private BigDecimal amount;
+    @JsonSerialize(using = MoneyJson.Serializer.class)
+    @JsonDeserialize(using = MoneyJson.Deserializer.class)
+    private Money amount;
+    /** ISO 4217 code of the amount; null means the user's base currency. */
+    private String currency;
     private String description;
     private Long categoryId;
     private LocalDateTime date = LocalDateTime.now();
+    /** Version the client last saw; echoed back on updates to detect lost updates. */
+    private Long version;
 }
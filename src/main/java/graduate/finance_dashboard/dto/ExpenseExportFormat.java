@@ -0,0 +1,16 @@
+package graduate.finance_dashboard.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum ExpenseExportFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson"),
+    /** Compact binary layout, see {@code ExpenseExportWriter.Columnar}. */
+    COLUMNAR("application/octet-stream", "fdxc");
+
+    private final String contentType;
+    private final String fileExtension;
+}
@@ -0,0 +1,34 @@
+package graduate.finance_dashboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ExpenseImportResultDto {
+    private long imported;
+    private long rejected;
+    /** Rejected rows with the line they were read from, capped at {@code MAX_ERRORS}. */
+    private List<RowError> errors = new ArrayList<>();
+
+    public static final int MAX_ERRORS = 1000;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+
+    public void reject(long line, String message) {
+        rejected++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RowError(line, message));
+        }
+    }
+}
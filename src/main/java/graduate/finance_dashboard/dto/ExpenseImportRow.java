@@ -0,0 +1,20 @@
+package graduate.finance_dashboard.dto;
+
+import lombok.Data;
+
+/**
+ * One row of a bulk import, as read from CSV or NDJSON. Fields are kept as text so that
+ * a malformed value is reported against its row instead of aborting the whole import.
+ */
+@Data
+public class ExpenseImportRow {
+    private String amount;
+    /** ISO 4217 code; the user's base currency when empty. */
+    private String currency;
+    private String description;
+    /** Category name; ignored when {@link #categoryId} is set. */
+    private String category;
+    private Long categoryId;
+    /** ISO date or date-time; the import time when empty. */
+    private String date;
+}
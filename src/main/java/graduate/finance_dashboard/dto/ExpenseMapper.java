@@ -13,9 +13,11 @@ public class ExpenseMapper {
         ExpenseDto dto = new ExpenseDto();
         dto.setId(expense.getId());
         dto.setAmount(expense.getAmount());
+        dto.setCurrency(expense.getCurrency());
         dto.setDescription(expense.getDescription());
         dto.setCategoryId(expense.getCategory() != null ? expense.getCategory().getId() : null);
         dto.setDate(expense.getCreatedAt());
+        dto.setVersion(expense.getVersion());
         return dto;
     }
 
@@ -25,6 +27,7 @@ public class ExpenseMapper {
         Expense expense = new Expense();
         expense.setId(dto.getId());
         expense.setAmount(dto.getAmount());
+        expense.setCurrency(dto.getCurrency());
         expense.setDescription(dto.getDescription());
         expense.setCreatedAt(dto.getDate() != null ? dto.getDate() : LocalDateTime.now());
         return expense;
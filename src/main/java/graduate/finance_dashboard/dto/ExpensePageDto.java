@@ -0,0 +1,16 @@
+package graduate.finance_dashboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpensePageDto {
+    private List<ExpenseDto> items;
+    /** Cursor for the next page, or null when this page is the last one. */
+    private String nextCursor;
+}
@@ -0,0 +1,86 @@
+package graduate.finance_dashboard.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+import graduate.finance_dashboard.model.Money;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes a {@link Money} as the bare JSON number a {@code BigDecimal} amount used
+ * to be, e.g. {@code 12.50}; the currency travels in the {@code currency} field next to it.
+ * Amounts are formatted and parsed straight between the minor units and Jackson's char
+ * buffers, without a {@code BigDecimal} or {@code String} per value.
+ */
+public final class MoneyJson {
+
+    private MoneyJson() {
+    }
+
+    public static class Serializer extends StdScalarSerializer<Money> {
+
+        private static final ThreadLocal<char[]> BUFFER =
+                ThreadLocal.withInitial(() -> new char[Money.MAX_FORMATTED_LENGTH]);
+
+        public Serializer() {
+            super(Money.class);
+        }
+
+        @Override
+        public void serialize(Money value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            char[] buffer = BUFFER.get();
+            generator.writeNumber(buffer, 0, Money.format(value.minorUnits(), buffer));
+        }
+    }
+
+    /**
+     * Accepts JSON numbers and numeric strings, like the {@code BigDecimal} deserializer did,
+     * including exponent notation within the range of an amount, which takes the slower
+     * {@code BigDecimal} route.
+     */
+    public static class Deserializer extends StdScalarDeserializer<Money> {
+
+        public Deserializer() {
+            super(Money.class);
+        }
+
+        @Override
+        public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            JsonToken token = parser.currentToken();
+            if (token == JsonToken.VALUE_NUMBER_INT && parser.getNumberType() != JsonParser.NumberType.BIG_INTEGER) {
+                try {
+                    return new Money(Math.multiplyExact(parser.getLongValue(), 100L));
+                } catch (ArithmeticException e) {
+                    throw context.weirdNumberException(parser.getNumberValue(), Money.class, "amount out of range");
+                }
+            }
+            if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT
+                    && token != JsonToken.VALUE_STRING) {
+                return (Money) context.handleUnexpectedToken(Money.class, parser);
+            }
+            if (token == JsonToken.VALUE_STRING && parser.getText().isBlank()) {
+                return null;
+            }
+            try {
+                return new Money(Money.parseMinorUnits(
+                        parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength()));
+            } catch (NumberFormatException e) {
+                return parseWithExponent(parser, context);
+            }
+        }
+
+        private static Money parseWithExponent(JsonParser parser, DeserializationContext context) throws IOException {
+            String text = parser.getText();
+            try {
+                return new Money(Money.parseMinorUnitsWithExponent(text));
+            } catch (NumberFormatException e) {
+                throw context.weirdStringException(text.trim(), Money.class, "not a valid amount");
+            }
+        }
+    }
+}
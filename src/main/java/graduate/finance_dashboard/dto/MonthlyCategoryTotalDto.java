@@ -0,0 +1,24 @@
+package graduate.finance_dashboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlyCategoryTotalDto {
+    /** First day of the month. */
+    private LocalDate month;
+    private Long categoryId;
+    private BigDecimal total;
+    private long count;
+
+    public MonthlyCategoryTotalDto(LocalDateTime month, Long categoryId, BigDecimal total, Long count) {
+        this(month.toLocalDate(), categoryId, total, count);
+    }
+}
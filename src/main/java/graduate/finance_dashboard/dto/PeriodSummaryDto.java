@@ -0,0 +1,29 @@
+package graduate.finance_dashboard.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+public class PeriodSummaryDto {
+    /** First day of the day, ISO week or month this row covers. */
+    private LocalDate periodStart;
+    private BigDecimal total;
+    private long count;
+    private BigDecimal min;
+    private BigDecimal max;
+    private BigDecimal average;
+
+    public PeriodSummaryDto(LocalDateTime periodStart, BigDecimal total, Long count, BigDecimal min, BigDecimal max) {
+        this.periodStart = periodStart.toLocalDate();
+        this.total = total;
+        this.count = count;
+        this.min = min;
+        this.max = max;
+        this.average = CategorySummaryDto.average(total, count);
+    }
+}
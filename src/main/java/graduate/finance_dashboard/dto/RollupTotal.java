@@ -0,0 +1,16 @@
+package graduate.finance_dashboard.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Total and count of a user's expenses in one category, month and currency, as stored in
+ * or recomputed for a rollup row. A null currency is the user's base currency.
+ */
+public record RollupTotal(LocalDate month, Long categoryId, String currency, BigDecimal total, long count) {
+
+    public RollupTotal(LocalDateTime month, Long categoryId, String currency, BigDecimal total, Long count) {
+        this(month.toLocalDate(), categoryId, currency, total, count);
+    }
+}
@@ -0,0 +1,10 @@
+package graduate.finance_dashboard.dto;
+
+/**
+ * Calendar period that expenses are grouped into by the summary endpoints.
+ */
+public enum SummaryBucket {
+    DAY,
+    WEEK,
+    MONTH
+}
@@ -0,0 +1,22 @@
+package graduate.finance_dashboard.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import graduate.finance_dashboard.model.ChangeLogEntry.EntityType;
+import graduate.finance_dashboard.model.ChangeLogEntry.Operation;
+
+/**
+ * One entry of the delta feed. Upserts carry the entity's current state; deletes only
+ * identify the entity.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SyncChangeDto(long seq, EntityType type, Long id, Operation operation,
+                            ExpenseDto expense, CategoryDto category) {
+
+    public SyncChangeDto withExpense(ExpenseDto expense) {
+        return new SyncChangeDto(seq, type, id, operation, expense, null);
+    }
+
+    public SyncChangeDto withCategory(CategoryDto category) {
+        return new SyncChangeDto(seq, type, id, operation, null, category);
+    }
+}
@@ -0,0 +1,10 @@
+package graduate.finance_dashboard.dto;
+
+import java.util.List;
+
+/**
+ * @param next    position to pass as {@code since} for the following request
+ * @param hasMore whether more changes are available right away
+ */
+public record SyncPageDto(List<SyncChangeDto> changes, long next, boolean hasMore) {
+}
@@ -0,0 +1,8 @@
+package graduate.finance_dashboard.dto;
+
+/**
+ * The few user attributes needed to authorize a request, without loading the
+ * {@link graduate.finance_dashboard.model.User} entity.
+ */
+public record UserPrincipal(Long id, String email, String firstName, String lastName) {
+}
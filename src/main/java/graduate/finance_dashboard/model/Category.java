@@ -2,41 +2,43 @@ package graduate.finance_dashboard.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Category.CACHE_REGION)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@ToString(exclude = "expenses")
+@ToString(exclude = "user")
+@EqualsAndHashCode(exclude = "user")
 public class Category {
 
+    public static final String CACHE_REGION = "categories";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     private String name;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @OneToMany(
-            mappedBy = "category",
-            cascade = CascadeType.ALL,
-            orphanRemoval = true,
-            fetch = FetchType.EAGER
-    )
-    @Builder.Default
-    private List<Expense> expenses = new ArrayList<>();
-
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
@@ -46,19 +48,4 @@ public class Category {
     protected void onUpdate() {
         this.updatedAt = LocalDateTime.now();
     }
-
-    @PreRemove
-    protected void onPreRemove() {
-        for (Expense expense : new ArrayList<>(expenses)) {
-            expense.setCategory(null);
-            expenses.remove(expense);
-        }
-        if (user != null) {
-            user.getCategories().remove(this);
-        }
-    }
-
-    public List<Expense> getExpenses() {
-        return expenses != null ? expenses : new ArrayList<>();
-    }
 }
\ No newline at end of file
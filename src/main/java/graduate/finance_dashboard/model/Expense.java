@@ -2,8 +2,8 @@ package graduate.finance_dashboard.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
@@ -21,11 +21,24 @@ public class Expense {
     private Long id;
 
     @Column(nullable = false)
-    private BigDecimal amount;
+    @Convert(converter = MoneyConverter.class)
+    private Money amount;
+
+    /**
+     * ISO 4217 code of the amount, or null when it is in the owner's base currency. Rollup
+     * rows are kept per currency and converted when read; see {@code ExpenseRollupService}.
+     */
+    @Column(length = 3)
+    private String currency;
 
     private String description;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    /**
+     * Owned only from this side: neither {@link Category} nor {@link User} maps its
+     * expenses as a collection, so creating or recategorizing an expense never loads or
+     * scans the other expenses of the category. Query them through {@code ExpenseRepository}.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id", nullable = false)
     private Category category;
 
@@ -36,6 +49,11 @@ public class Expense {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
@@ -45,26 +63,4 @@ public class Expense {
     protected void onUpdate() {
         this.updatedAt = LocalDateTime.now();
     }
-    
-    @PreRemove
-    protected void onPreRemove() {
-        if (category != null) {
-            category.getExpenses().remove(this);
-        }
-        if (user != null) {
-            user.getExpenses().remove(this);
-        }
-    }
-
-    public void setCategory(Category newCategory) {
-        if (this.category != null && !this.category.equals(newCategory)) {
-            this.category.getExpenses().remove(this);
-        }
-        
-        this.category = newCategory;
-
-        if (newCategory != null && !newCategory.getExpenses().contains(this)) {
-            newCategory.getExpenses().add(this);
-        }
-    }
 }
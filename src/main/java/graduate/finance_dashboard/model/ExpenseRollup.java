@@ -0,0 +1,48 @@
+package graduate.finance_dashboard.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Running total and count of a user's expenses in one category, calendar month and
+ * currency.
+ * Maintained in the same transaction as every expense write, so reading a month's
+ * totals costs the same no matter how many expenses it contains.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "expense_rollup",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "category_id", "month_start", "currency"}))
+public class ExpenseRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    /** First day of the month. */
+    @Column(name = "month_start", nullable = false)
+    private LocalDate month;
+
+    /** ISO 4217 code, or null for the user's base currency, like {@link Expense#getCurrency()}. */
+    @Column(length = 3)
+    private String currency;
+
+    @Column(nullable = false)
+    private BigDecimal total;
+
+    @Column(name = "expense_count", nullable = false)
+    private long expenseCount;
+}
@@ -0,0 +1,211 @@
+package graduate.finance_dashboard.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount as a whole number of minor units, hundredths like the {@code numeric(38, 2)}
+ * amount columns. The currency is not part of the value: it is kept once, next to the
+ * amount, in {@code Expense.currency} and {@code ExpenseDto.currency}.
+ * <p>
+ * Arithmetic is plain {@code long} arithmetic that throws {@link ArithmeticException} on
+ * overflow instead of wrapping. The instances are small immutable records the JIT can
+ * usually keep in registers. {@link BigDecimal} only appears where an amount crosses into
+ * JDBC.
+ */
+public record Money(long minorUnits) {
+
+    public static final int SCALE = 2;
+    /** Longest text {@link #format} writes: a sign, 19 digits and the decimal point. */
+    public static final int MAX_FORMATTED_LENGTH = 21;
+
+    private static final long MINOR_PER_MAJOR = 100;
+    /** Integer digits of the largest amount, {@code Long.MAX_VALUE} minor units. */
+    private static final int MAX_INTEGER_DIGITS = 17;
+    /** Decimal places accepted before rounding; more than a column or a double ever holds. */
+    private static final int MAX_PARSED_SCALE = 20;
+    private static final int MAX_EXPONENT_TEXT_LENGTH = 40;
+
+    public static Money of(BigDecimal amount) {
+        return new Money(minorUnits(amount));
+    }
+
+    public static Money of(String amount) {
+        return new Money(parseMinorUnits(amount));
+    }
+
+    /**
+     * {@code amount} in hundredths, rounded half up like PostgreSQL rounds a value stored
+     * into a column of scale 2.
+     *
+     * @throws ArithmeticException if the result does not fit a {@code long}
+     */
+    public static long minorUnits(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return toBigDecimal(minorUnits);
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits));
+    }
+
+    /**
+     * Parses a plain decimal amount such as {@code -12.5} into hundredths, rounding half
+     * up past the second decimal place. Surrounding whitespace is ignored; exponents are
+     * not accepted.
+     *
+     * @throws NumberFormatException if the text is not a plain decimal or is out of range
+     */
+    public static long parseMinorUnits(char[] text, int offset, int length) {
+        int i = offset;
+        int end = offset + length;
+        while (i < end && Character.isWhitespace(text[i])) {
+            i++;
+        }
+        while (end > i && Character.isWhitespace(text[end - 1])) {
+            end--;
+        }
+        boolean negative = false;
+        if (i < end && (text[i] == '-' || text[i] == '+')) {
+            negative = text[i] == '-';
+            i++;
+        }
+
+        long units = 0;
+        int digits = 0;
+        try {
+            for (; i < end && text[i] != '.'; i++, digits++) {
+                units = Math.addExact(Math.multiplyExact(units, 10), digit(text, i, offset, length));
+            }
+            long fraction = 0;
+            int fractionDigits = 0;
+            boolean roundUp = false;
+            if (i < end) {
+                for (i++; i < end; i++, digits++, fractionDigits++) {
+                    int digit = digit(text, i, offset, length);
+                    if (fractionDigits < SCALE) {
+                        fraction = fraction * 10 + digit;
+                    } else if (fractionDigits == SCALE) {
+                        roundUp = digit >= 5;
+                    }
+                }
+            }
+            if (digits == 0) {
+                throw invalid(text, offset, length);
+            }
+            for (; fractionDigits < SCALE; fractionDigits++) {
+                fraction *= 10;
+            }
+            long result = Math.addExact(Math.multiplyExact(units, MINOR_PER_MAJOR), fraction + (roundUp ? 1 : 0));
+            return negative ? -result : result;
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: " + new String(text, offset, length));
+        }
+    }
+
+    public static long parseMinorUnits(String text) {
+        return parseMinorUnits(text.toCharArray(), 0, text.length());
+    }
+
+    /**
+     * Like {@link #parseMinorUnits(String)}, but also accepts exponent notation such as
+     * {@code 1.5e1}. Values with more integer digits than a {@code long} of minor units can
+     * hold, with more than {@link #MAX_PARSED_SCALE} decimal places, or longer than
+     * {@link #MAX_EXPONENT_TEXT_LENGTH} chars are rejected before they are rescaled:
+     * rescaling {@code 1e100000000} would take minutes.
+     *
+     * @throws NumberFormatException if the text is not a decimal or is out of range
+     */
+    public static long parseMinorUnitsWithExponent(String text) {
+        try {
+            return parseMinorUnits(text);
+        } catch (NumberFormatException e) {
+            String trimmed = text.trim();
+            // Long digit strings are slow to parse too; plain ones already failed above.
+            if (trimmed.length() > MAX_EXPONENT_TEXT_LENGTH || (trimmed.indexOf('e') < 0 && trimmed.indexOf('E') < 0)) {
+                throw e;
+            }
+            BigDecimal amount = new BigDecimal(trimmed);
+            if (amount.scale() > MAX_PARSED_SCALE || amount.precision() - amount.scale() > MAX_INTEGER_DIGITS) {
+                throw new NumberFormatException("Amount out of range: " + text);
+            }
+            try {
+                return minorUnits(amount);
+            } catch (ArithmeticException overflow) {
+                throw new NumberFormatException("Amount out of range: " + text);
+            }
+        }
+    }
+
+    private static int digit(char[] text, int i, int offset, int length) {
+        char c = text[i];
+        if (c < '0' || c > '9') {
+            throw invalid(text, offset, length);
+        }
+        return c - '0';
+    }
+
+    private static NumberFormatException invalid(char[] text, int offset, int length) {
+        return new NumberFormatException("Invalid amount: " + new String(text, offset, length));
+    }
+
+    /**
+     * Writes {@code minorUnits} as a plain decimal with two places, e.g. {@code -12.05},
+     * to the start of {@code buffer}, which must hold {@link #MAX_FORMATTED_LENGTH} chars.
+     *
+     * @return the number of chars written
+     */
+    public static int format(long minorUnits, char[] buffer) {
+        // Digits are taken from a non-positive value so that Long.MIN_VALUE needs no negation.
+        long rest = minorUnits < 0 ? minorUnits : -minorUnits;
+        int pos = MAX_FORMATTED_LENGTH;
+        for (int i = 0; i < SCALE; i++) {
+            buffer[--pos] = (char) ('0' - rest % 10);
+            rest /= 10;
+        }
+        buffer[--pos] = '.';
+        do {
+            buffer[--pos] = (char) ('0' - rest % 10);
+            rest /= 10;
+        } while (rest != 0);
+        if (minorUnits < 0) {
+            buffer[--pos] = '-';
+        }
+        int length = MAX_FORMATTED_LENGTH - pos;
+        System.arraycopy(buffer, pos, buffer, 0, length);
+        return length;
+    }
+
+    public String toPlainString() {
+        char[] buffer = new char[MAX_FORMATTED_LENGTH];
+        return new String(buffer, 0, format(minorUnits, buffer));
+    }
+
+    @Override
+    public String toString() {
+        return toPlainString();
+    }
+}
@@ -1,15 +1,16 @@
 package graduate.finance_dashboard.model;
 
+import graduate.finance_dashboard.service.UserPrincipalCacheListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 @Data
 @NoArgsConstructor
 @Entity
+@EntityListeners(UserPrincipalCacheListener.class)
 @Table(name = "users")
 public class User {
 
@@ -23,15 +24,12 @@ public class User {
     private String username;
     private String password;
     private String email;
+    /** Currency summaries are converted into; null means {@code app.fx.default-base-currency}. */
+    @Column(length = 3)
+    private String baseCurrency;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
-    @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
-    private List<Category> categories;
-
-    @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
-    private List<Expense> expenses;
-
     public User(String firstName, String lastName, String username, String password, String email, LocalDateTime createdAt) {
         this.firstName = firstName;
         this.lastName = lastName;
@@ -3,6 +3,9 @@ package graduate.finance_dashboard.repository;
 import graduate.finance_dashboard.model.Category;
 import graduate.finance_dashboard.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,4 +14,12 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     List<Category> findByUser(User user);
     Optional<Category> findByNameAndUser(String name, User user);
     boolean existsByNameAndUser(String name, User user);
+
+    /**
+     * Also empties the categories region of the second-level cache, as every JPQL bulk
+     * delete does for the entities it touches.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Category c where c.user.user_id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
 }
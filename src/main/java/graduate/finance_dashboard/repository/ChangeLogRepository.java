@@ -0,0 +1,87 @@
+package graduate.finance_dashboard.repository;
+
+import graduate.finance_dashboard.model.ChangeLogEntry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+
+    /**
+     * A user's changes after {@code since}, keeping only the latest entry per entity:
+     * a client catching up needs the final state, not every step to it.
+     */
+    @Query("""
+            select c from ChangeLogEntry c
+            where c.userId = :userId and c.seq > :since
+              and not exists (
+                  select 1 from ChangeLogEntry later
+                  where later.userId = c.userId
+                    and later.entityType = c.entityType
+                    and later.entityId = c.entityId
+                    and later.seq > c.seq)
+            order by c.seq
+            """)
+    List<ChangeLogEntry> findLatestChanges(@Param("userId") Long userId, @Param("since") long since, Limit limit);
+
+    /**
+     * Tombstones for all expenses of a category, written before they are deleted with it.
+     * Native inserts name the table they write; without it Hibernate would assume any
+     * table changed and empty the whole second-level cache.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "change_log"))
+    @Query(value = """
+            insert into change_log (user_id, entity_type, entity_id, operation, changed_at)
+            select e.user_id, 'EXPENSE', e.id, 'DELETE', :changedAt
+            from expense e where e.category_id = :categoryId
+            order by e.id
+            """, nativeQuery = true)
+    int insertExpenseTombstonesForCategory(@Param("categoryId") Long categoryId,
+                                           @Param("changedAt") LocalDateTime changedAt);
+
+    /**
+     * Upserts for a user's expenses with an id above {@code afterId}; used after a bulk
+     * import, which inserts through JDBC and never sees the generated ids.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "change_log"))
+    @Query(value = """
+            insert into change_log (user_id, entity_type, entity_id, operation, changed_at)
+            select e.user_id, 'EXPENSE', e.id, 'UPSERT', :changedAt
+            from expense e where e.user_id = :userId and e.id > :afterId
+            order by e.id
+            """, nativeQuery = true)
+    int insertExpenseUpsertsAfter(@Param("userId") Long userId,
+                                  @Param("afterId") long afterId,
+                                  @Param("changedAt") LocalDateTime changedAt);
+
+    /**
+     * Upserts for a user's expenses that have no currency; used before they are given one
+     * in bulk.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "change_log"))
+    @Query(value = """
+            insert into change_log (user_id, entity_type, entity_id, operation, changed_at)
+            select e.user_id, 'EXPENSE', e.id, 'UPSERT', :changedAt
+            from expense e where e.user_id = :userId and e.currency is null
+            order by e.id
+            """, nativeQuery = true)
+    int insertExpenseUpsertsWithoutCurrency(@Param("userId") Long userId,
+                                            @Param("changedAt") LocalDateTime changedAt);
+
+    @Modifying
+    @Query("delete from ChangeLogEntry c where c.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
@@ -1,17 +1,163 @@
 package graduate.finance_dashboard.repository;
 
+import graduate.finance_dashboard.dto.CategorySummaryDto;
+import graduate.finance_dashboard.dto.CurrencyDayTotal;
+import graduate.finance_dashboard.dto.PeriodSummaryDto;
+import graduate.finance_dashboard.dto.RollupTotal;
 import graduate.finance_dashboard.model.Category;
 import graduate.finance_dashboard.model.Expense;
 import graduate.finance_dashboard.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
     List<Expense> findByUser(User user);
     List<Expense> findByUserAndCategory(User user, Category category);
     List<Expense> findByUserAndCreatedAtBetween(User user, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * First page of a user's expenses, newest first. Ordering on (createdAt, id) keeps
+     * the order total so that {@link #findPageByUserAfter} can continue from any row.
+     */
+    @Query("select e from Expense e where e.user = :user order by e.createdAt desc, e.id desc")
+    List<Expense> findFirstPageByUser(@Param("user") User user, Limit limit);
+
+    /**
+     * Keyset continuation: rows strictly after the (createdAt, id) position of the last row
+     * of the previous page, so the cost of a page does not depend on how deep the client is.
+     */
+    @Query("""
+            select e from Expense e
+            where e.user = :user
+              and (e.createdAt < :createdAt or (e.createdAt = :createdAt and e.id < :id))
+            order by e.createdAt desc, e.id desc
+            """)
+    List<Expense> findPageByUserAfter(@Param("user") User user,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id,
+                                      Limit limit);
+
+    /**
+     * Forward-only read of all of a user's expenses. Must be consumed inside a transaction
+     * and closed by the caller; the fetch size lets the driver use a server-side cursor
+     * instead of buffering the whole result set.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select e from Expense e where e.user = :user order by e.createdAt desc, e.id desc")
+    Stream<Expense> streamByUser(@Param("user") User user);
+
+    // The aggregates cast amounts back to BigDecimal; otherwise Hibernate would type them as
+    // Money through the attribute's converter. They only cover expenses in the base
+    // currency; the rest are read per day by summarizeForeignByDay and converted.
+    @Query("""
+            select new graduate.finance_dashboard.dto.CategorySummaryDto(
+                e.category.id, e.category.name, sum(cast(e.amount as BigDecimal)), count(e),
+                min(cast(e.amount as BigDecimal)), max(cast(e.amount as BigDecimal)))
+            from Expense e
+            where e.user = :user and e.currency is null and e.createdAt between :start and :end
+            group by e.category.id, e.category.name
+            order by sum(e.amount) desc
+            """)
+    List<CategorySummaryDto> summarizeByCategory(@Param("user") User user,
+                                                 @Param("start") LocalDateTime start,
+                                                 @Param("end") LocalDateTime end);
+
+    @Query("""
+            select new graduate.finance_dashboard.dto.PeriodSummaryDto(
+                trunc(e.createdAt, day), sum(cast(e.amount as BigDecimal)), count(e),
+                min(cast(e.amount as BigDecimal)), max(cast(e.amount as BigDecimal)))
+            from Expense e
+            where e.user = :user and e.currency is null and e.createdAt between :start and :end
+            group by trunc(e.createdAt, day)
+            order by trunc(e.createdAt, day)
+            """)
+    List<PeriodSummaryDto> summarizeByDay(@Param("user") User user,
+                                          @Param("start") LocalDateTime start,
+                                          @Param("end") LocalDateTime end);
+
+    @Query("""
+            select new graduate.finance_dashboard.dto.PeriodSummaryDto(
+                trunc(e.createdAt, week), sum(cast(e.amount as BigDecimal)), count(e),
+                min(cast(e.amount as BigDecimal)), max(cast(e.amount as BigDecimal)))
+            from Expense e
+            where e.user = :user and e.currency is null and e.createdAt between :start and :end
+            group by trunc(e.createdAt, week)
+            order by trunc(e.createdAt, week)
+            """)
+    List<PeriodSummaryDto> summarizeByWeek(@Param("user") User user,
+                                           @Param("start") LocalDateTime start,
+                                           @Param("end") LocalDateTime end);
+
+    @Query("""
+            select new graduate.finance_dashboard.dto.PeriodSummaryDto(
+                trunc(e.createdAt, month), sum(cast(e.amount as BigDecimal)), count(e),
+                min(cast(e.amount as BigDecimal)), max(cast(e.amount as BigDecimal)))
+            from Expense e
+            where e.user = :user and e.currency is null and e.createdAt between :start and :end
+            group by trunc(e.createdAt, month)
+            order by trunc(e.createdAt, month)
+            """)
+    List<PeriodSummaryDto> summarizeByMonth(@Param("user") User user,
+                                            @Param("start") LocalDateTime start,
+                                            @Param("end") LocalDateTime end);
+
+    @Query("""
+            select new graduate.finance_dashboard.dto.CurrencyDayTotal(
+                e.category.id, e.category.name, e.currency, trunc(e.createdAt, day),
+                sum(cast(e.amount as BigDecimal)), count(e),
+                min(cast(e.amount as BigDecimal)), max(cast(e.amount as BigDecimal)))
+            from Expense e
+            where e.user = :user and e.currency is not null and e.createdAt between :start and :end
+            group by e.category.id, e.category.name, e.currency, trunc(e.createdAt, day)
+            """)
+    List<CurrencyDayTotal> summarizeForeignByDay(@Param("user") User user,
+                                                 @Param("start") LocalDateTime start,
+                                                 @Param("end") LocalDateTime end);
+
+    @Query("""
+            select new graduate.finance_dashboard.dto.RollupTotal(
+                trunc(e.createdAt, month), e.category.id, e.currency, sum(cast(e.amount as BigDecimal)), count(e))
+            from Expense e
+            where e.user.user_id = :userId
+            group by trunc(e.createdAt, month), e.category.id, e.currency
+            """)
+    List<RollupTotal> computeMonthlyTotals(@Param("userId") Long userId);
+
+    @Query("select coalesce(max(e.id), 0) from Expense e where e.user.user_id = :userId")
+    long findMaxIdByUserId(@Param("userId") Long userId);
+
+    /**
+     * Deletes a category's expenses in one statement. Bypasses the persistence context, so
+     * callers must not keep using expense entities they loaded earlier in the transaction.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Expense e where e.category.id = :categoryId")
+    int deleteByCategoryId(@Param("categoryId") Long categoryId);
+
+    /**
+     * Gives the user's expenses that have no currency the given one. Bypasses the
+     * persistence context like the bulk deletes in this repository.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Expense e set e.currency = :currency where e.user.user_id = :userId and e.currency is null")
+    int assignCurrency(@Param("userId") Long userId, @Param("currency") String currency);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Expense e where e.user.user_id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
 }
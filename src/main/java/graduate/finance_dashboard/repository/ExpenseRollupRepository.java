@@ -0,0 +1,64 @@
+package graduate.finance_dashboard.repository;
+
+import graduate.finance_dashboard.dto.RollupTotal;
+import graduate.finance_dashboard.model.ExpenseRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ExpenseRollupRepository extends JpaRepository<ExpenseRollup, Long> {
+
+    @Query("""
+            select new graduate.finance_dashboard.dto.RollupTotal(r.month, r.categoryId, r.currency, r.total, r.expenseCount)
+            from ExpenseRollup r
+            where r.userId = :userId and r.month between :from and :to
+            order by r.month, r.categoryId
+            """)
+    List<RollupTotal> findTotals(@Param("userId") Long userId,
+                                             @Param("from") LocalDate from,
+                                             @Param("to") LocalDate to);
+
+    @Query("""
+            select new graduate.finance_dashboard.dto.RollupTotal(r.month, r.categoryId, r.currency, r.total, r.expenseCount)
+            from ExpenseRollup r
+            where r.userId = :userId
+            """)
+    List<RollupTotal> findAllTotals(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("""
+            update ExpenseRollup r
+            set r.total = r.total + :amount, r.expenseCount = r.expenseCount + :count
+            where r.userId = :userId and r.categoryId = :categoryId and r.month = :month
+              and (r.currency = :currency or r.currency is null and :currency is null)
+            """)
+    int increment(@Param("userId") Long userId,
+                  @Param("categoryId") Long categoryId,
+                  @Param("month") LocalDate month,
+                  @Param("currency") String currency,
+                  @Param("amount") BigDecimal amount,
+                  @Param("count") long count);
+
+    @Modifying
+    @Query("delete from ExpenseRollup r where r.categoryId = :categoryId")
+    int deleteByCategoryId(@Param("categoryId") Long categoryId);
+
+    /**
+     * Gives the user's rows without a currency the given one, like
+     * {@code ExpenseRepository.assignCurrency} does for their expenses.
+     */
+    @Modifying
+    @Query("update ExpenseRollup r set r.currency = :currency where r.userId = :userId and r.currency is null")
+    int assignCurrency(@Param("userId") Long userId, @Param("currency") String currency);
+
+    @Modifying
+    @Query("delete from ExpenseRollup r where r.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
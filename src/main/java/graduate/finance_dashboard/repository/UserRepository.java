@@ -1,14 +1,46 @@
 package graduate.finance_dashboard.repository;
 
+import graduate.finance_dashboard.dto.UserPrincipal;
 import graduate.finance_dashboard.model.User;
 import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 @Transactional
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+
+    @Query("""
+            select new graduate.finance_dashboard.dto.UserPrincipal(u.user_id, u.email, u.firstName, u.lastName)
+            from User u where u.email = :email
+            """)
+    Optional<UserPrincipal> findPrincipalByEmail(String email);
+
+    @Query("select u.baseCurrency from User u where u.user_id = :id")
+    Optional<String> findBaseCurrencyById(@Param("id") Long id);
+
+    @Query("select u.user_id from User u order by u.user_id")
+    List<Long> findAllIds();
+
+    /**
+     * Locks the user's row until the end of the transaction. Writers of a user's data take
+     * this first, which serializes them per user.
+     */
+    @Query(value = "select user_id from users where user_id = :id for update", nativeQuery = true)
+    Long lockById(Long id);
+
+    /**
+     * Deletes the user row directly. Entity listeners do not run, so the caller evicts the
+     * user from {@code UserPrincipalCache} itself.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from User u where u.user_id = :id")
+    int deleteInBulkById(@Param("id") Long id);
 }
@@ -0,0 +1,10 @@
+package graduate.finance_dashboard.service;
+
+/**
+ * Published inside the transaction to tell the other nodes to drop what they cache for
+ * {@code entry}, one of the {@link InvalidationMessage} entries, once the change commits.
+ * Changes announced by {@link ExpenseChangedEvent} and {@link CategoryChangedEvent} are
+ * forwarded without it.
+ */
+public record CacheInvalidationEvent(String entry) {
+}
@@ -0,0 +1,8 @@
+package graduate.finance_dashboard.service;
+
+/**
+ * Published inside the transaction whenever categories of a user are created, renamed or
+ * deleted.
+ */
+public record CategoryChangedEvent(Long userId) {
+}
@@ -2,15 +2,22 @@ package graduate.finance_dashboard.service;
 
 import graduate.finance_dashboard.exception.ApiException;
 import graduate.finance_dashboard.model.Category;
+import graduate.finance_dashboard.model.ChangeLogEntry.EntityType;
+import graduate.finance_dashboard.model.ChangeLogEntry.Operation;
 import graduate.finance_dashboard.model.User;
 import graduate.finance_dashboard.repository.CategoryRepository;
+import graduate.finance_dashboard.repository.ExpenseRepository;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -19,12 +26,43 @@ import java.util.Optional;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
-
-
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseRollupService expenseRollupService;
+    private final ChangeLogService changeLogService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CollectionVersions collectionVersions;
+    private final UserCategoryIds userCategoryIds;
+    private final EntityManager entityManager;
+
+    /**
+     * Served from the second-level cache once the user's category ids are cached: the
+     * categories themselves are looked up by id, and those missing from the entity cache
+     * are loaded together in one query first.
+     */
     @Transactional(readOnly = true)
     public List<Category> getCategoriesByUser(User user) {
-        log.info("Retrieving categories for user: {}", user.getUser_id());
-        return categoryRepository.findByUser(user);
+        log.debug("Retrieving categories for user: {}", user.getUser_id());
+        long stamp = collectionVersions.stamp(CollectionVersions.Collection.CATEGORIES, user.getUser_id());
+        List<Long> ids = userCategoryIds.get(user.getUser_id(), stamp);
+        if (ids != null) {
+            return loadCached(ids);
+        }
+
+        List<Category> categories = categoryRepository.findByUser(user);
+        userCategoryIds.put(user.getUser_id(), stamp, categories.stream().map(Category::getId).toList());
+        return categories;
+    }
+
+    private List<Category> loadCached(List<Long> ids) {
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        List<Long> missing = ids.stream().filter(id -> !cache.contains(Category.class, id)).toList();
+        if (!missing.isEmpty()) {
+            categoryRepository.findAllById(missing);
+        }
+        return ids.stream()
+                .map(id -> categoryRepository.findById(id).orElse(null))
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     @Transactional(readOnly = true)
@@ -38,7 +76,8 @@ public class CategoryService {
 
     @Transactional
     public Category createCategory(Category category, User user) {
-        log.info("Creating new category for user: {}", user.getUser_id());
+        log.debug("Creating new category for user: {}", user.getUser_id());
+        changeLogService.lockUser(user.getUser_id());
 
         if (categoryRepository.existsByNameAndUser(category.getName(), user)) {
             log.error("Attempt to create duplicate category: {} for user: {}", 
@@ -48,11 +87,15 @@ public class CategoryService {
         }
 
         category.setUser(user);
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        changeLogService.record(user.getUser_id(), EntityType.CATEGORY, savedCategory.getId(), Operation.UPSERT);
+        eventPublisher.publishEvent(new CategoryChangedEvent(user.getUser_id()));
+        return savedCategory;
     }
 
     @Transactional
     public Category updateCategory(Long id, Category categoryDetails, User user) {
+        changeLogService.lockUser(user.getUser_id());
         Category category = getCategoryById(id);
 
         if (!category.getUser().getUser_id().equals(user.getUser_id())) {
@@ -69,13 +112,24 @@ public class CategoryService {
         }
 
         category.setName(categoryDetails.getName());
-        log.info("Updated category name with ID: {}", id);
-        return categoryRepository.save(category);
+        log.debug("Updated category name with ID: {}", id);
+        Category savedCategory = categoryRepository.save(category);
+        changeLogService.record(user.getUser_id(), EntityType.CATEGORY, id, Operation.UPSERT);
+        eventPublisher.publishEvent(new CategoryChangedEvent(user.getUser_id()));
+        eventPublisher.publishEvent(new CacheInvalidationEvent(InvalidationMessage.category(id)));
+        return savedCategory;
     }
 
+    /**
+     * Deletes the category and all of its expenses with set-based statements, so the cost
+     * stays a fixed handful of statements however many expenses the category holds. The
+     * category row itself goes through the entity manager, which evicts just that entry
+     * from the second-level cache.
+     */
     @Transactional
     public void deleteCategory(Long categoryId, User user) {
-        log.info("Starting category deletion: id={}, userId={}", categoryId, user.getUser_id());
+        log.debug("Starting category deletion: id={}, userId={}", categoryId, user.getUser_id());
+        changeLogService.lockUser(user.getUser_id());
         
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> {
@@ -90,9 +144,16 @@ public class CategoryService {
         }
 
         try {
-            log.info("Deleting category with all its expenses: {}", categoryId);
+            log.debug("Deleting category with all its expenses: {}", categoryId);
+            changeLogService.recordCategoryDeleted(user.getUser_id(), categoryId);
+            int expensesDeleted = expenseRepository.deleteByCategoryId(categoryId);
+            expenseRollupService.removeCategory(categoryId);
             categoryRepository.delete(category);
-            log.info("Category and all related data deleted successfully");
+            log.debug("Deleted {} expenses of category: {}", expensesDeleted, categoryId);
+            eventPublisher.publishEvent(new CategoryChangedEvent(user.getUser_id()));
+            eventPublisher.publishEvent(new ExpenseChangedEvent(user.getUser_id()));
+            eventPublisher.publishEvent(new CacheInvalidationEvent(InvalidationMessage.category(categoryId)));
+            log.debug("Category and all related data deleted successfully");
         } catch (Exception e) {
             log.error("Error during category deletion: {}", e.getMessage(), e);
             throw new ApiException("Failed to delete category: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
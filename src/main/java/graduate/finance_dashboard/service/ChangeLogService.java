@@ -0,0 +1,152 @@
+package graduate.finance_dashboard.service;
+
+import graduate.finance_dashboard.dto.CategoryMapper;
+import graduate.finance_dashboard.dto.ExpenseMapper;
+import graduate.finance_dashboard.dto.SyncChangeDto;
+import graduate.finance_dashboard.dto.SyncPageDto;
+import graduate.finance_dashboard.exception.ApiException;
+import graduate.finance_dashboard.model.Category;
+import graduate.finance_dashboard.model.ChangeLogEntry;
+import graduate.finance_dashboard.model.ChangeLogEntry.EntityType;
+import graduate.finance_dashboard.model.ChangeLogEntry.Operation;
+import graduate.finance_dashboard.model.Expense;
+import graduate.finance_dashboard.repository.CategoryRepository;
+import graduate.finance_dashboard.repository.ChangeLogRepository;
+import graduate.finance_dashboard.repository.ExpenseRepository;
+import graduate.finance_dashboard.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Records every change to a user's expenses and categories in the same transaction as
+ * the change, and serves them back as a delta feed.
+ * <p>
+ * Sequence numbers come from an identity column, which hands them out in allocation
+ * order, not commit order. Writers therefore call {@link #lockUser} before touching any
+ * of the user's rows: with the user's row lock held until commit, a reader can never
+ * see seq {@code n + 1} of a user committed while {@code n} is still pending, and a
+ * client that remembers the last seq it saw cannot miss a change.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChangeLogService {
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final ChangeLogRepository changeLogRepository;
+    private final UserRepository userRepository;
+    private final ExpenseRepository expenseRepository;
+    private final CategoryRepository categoryRepository;
+    private final CategoryMapper categoryMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockUser(Long userId) {
+        if (userRepository.lockById(userId) == null) {
+            // The account was deleted while the caller's session token was still valid.
+            throw new ApiException("Account no longer exists", HttpStatus.UNAUTHORIZED);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeUser(Long userId) {
+        int removed = changeLogRepository.deleteByUserId(userId);
+        log.debug("Removed {} change log entries of user: {}", removed, userId);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long userId, EntityType entityType, Long entityId, Operation operation) {
+        changeLogRepository.save(ChangeLogEntry.builder()
+                .userId(userId)
+                .entityType(entityType)
+                .entityId(entityId)
+                .operation(operation)
+                .changedAt(LocalDateTime.now())
+                .build());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCategoryDeleted(Long userId, Long categoryId) {
+        changeLogRepository.insertExpenseTombstonesForCategory(categoryId, LocalDateTime.now());
+        record(userId, EntityType.CATEGORY, categoryId, Operation.DELETE);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordExpensesImported(Long userId, long afterExpenseId) {
+        changeLogRepository.insertExpenseUpsertsAfter(userId, afterExpenseId, LocalDateTime.now());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCurrencyAssigned(Long userId) {
+        changeLogRepository.insertExpenseUpsertsWithoutCurrency(userId, LocalDateTime.now());
+    }
+
+    /**
+     * Changes after {@code since}, oldest first, with the current state of every changed
+     * entity that still exists. Pass the returned {@code next} as {@code since} to continue.
+     */
+    @Transactional(readOnly = true)
+    public SyncPageDto getChanges(Long userId, long since, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ApiException("Page size must be between 1 and " + MAX_PAGE_SIZE, HttpStatus.BAD_REQUEST);
+        }
+        if (since < 0) {
+            throw new ApiException("since must not be negative", HttpStatus.BAD_REQUEST);
+        }
+
+        List<ChangeLogEntry> entries = changeLogRepository.findLatestChanges(userId, since, Limit.of(limit));
+        Map<Long, Expense> expenses = load(entries, EntityType.EXPENSE, expenseRepository::findAllById, Expense::getId);
+        Map<Long, Category> categories = load(entries, EntityType.CATEGORY, categoryRepository::findAllById, Category::getId);
+
+        List<SyncChangeDto> changes = new ArrayList<>(entries.size());
+        for (ChangeLogEntry entry : entries) {
+            SyncChangeDto change = new SyncChangeDto(entry.getSeq(), entry.getEntityType(), entry.getEntityId(),
+                    entry.getOperation(), null, null);
+            if (entry.getOperation() == Operation.UPSERT) {
+                if (entry.getEntityType() == EntityType.EXPENSE) {
+                    Expense expense = expenses.get(entry.getEntityId());
+                    if (expense == null) {
+                        // Deleted after this page was read; its tombstone follows in a later page.
+                        continue;
+                    }
+                    change = change.withExpense(ExpenseMapper.toDto(expense));
+                } else {
+                    Category category = categories.get(entry.getEntityId());
+                    if (category == null) {
+                        continue;
+                    }
+                    change = change.withCategory(categoryMapper.toDto(category));
+                }
+            }
+            changes.add(change);
+        }
+
+        long next = entries.isEmpty() ? since : entries.get(entries.size() - 1).getSeq();
+        log.debug("Sync for user: {} since {} returned {} changes", userId, since, changes.size());
+        return new SyncPageDto(changes, next, entries.size() == limit);
+    }
+
+    private static <T> Map<Long, T> load(List<ChangeLogEntry> entries, EntityType type,
+                                         Function<List<Long>, List<T>> finder, Function<T, Long> id) {
+        List<Long> ids = entries.stream()
+                .filter(entry -> entry.getEntityType() == type && entry.getOperation() == Operation.UPSERT)
+                .map(ChangeLogEntry::getEntityId)
+                .toList();
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return finder.apply(ids).stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+}
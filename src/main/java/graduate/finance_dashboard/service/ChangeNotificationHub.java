@@ -0,0 +1,226 @@
+package graduate.finance_dashboard.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans committed changes out to the users' open Server-Sent Events streams. Events tell
+ * a dashboard which collection changed; it then fetches the delta from
+ * {@code /api/sync}.
+ * <p>
+ * Publishing never blocks on a client: each subscriber has a small bounded queue that is
+ * drained by a virtual thread only while there is something to send, so an idle
+ * connection holds no thread at all. A subscriber whose queue fills up is not keeping
+ * up and is disconnected; it reconnects and catches up through the sync endpoint.
+ */
+@Component
+@Slf4j
+public class ChangeNotificationHub implements MeterBinder {
+
+    public enum Topic {
+        EXPENSES, CATEGORIES
+    }
+
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("heartbeat").build();
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Duration timeout;
+    private final int bufferSize;
+    private final int maxPerUser;
+    private Counter dropped;
+
+    public ChangeNotificationHub(@Value("${app.sse.timeout:30m}") Duration timeout,
+                                 @Value("${app.sse.buffer-size:64}") int bufferSize,
+                                 @Value("${app.sse.max-streams-per-user:10}") int maxPerUser) {
+        this.timeout = timeout;
+        this.bufferSize = bufferSize;
+        this.maxPerUser = maxPerUser;
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(userId, emitter, bufferSize);
+
+        // Added under the map's lock for the user, so a concurrent remove() of the user's
+        // last stream cannot drop the set between looking it up and adding to it.
+        Subscriber[] evicted = new Subscriber[1];
+        subscribers.compute(userId, (key, userSubscribers) -> {
+            if (userSubscribers == null) {
+                userSubscribers = ConcurrentHashMap.newKeySet();
+            }
+            if (userSubscribers.size() >= maxPerUser) {
+                // Make room by closing one of the existing streams; with this many open, most
+                // belong to abandoned tabs.
+                evicted[0] = userSubscribers.iterator().next();
+                userSubscribers.remove(evicted[0]);
+            }
+            userSubscribers.add(subscriber);
+            return userSubscribers;
+        });
+        if (evicted[0] != null) {
+            close(evicted[0], "too many streams");
+        } else {
+            subscriberCount.incrementAndGet();
+        }
+
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        enqueue(subscriber, SseEmitter.event().name("ready").data("{}", MediaType.APPLICATION_JSON).build());
+        return emitter;
+    }
+
+    public void publish(Long userId, Topic topic) {
+        Set<Subscriber> userSubscribers = subscribers.get(userId);
+        if (userSubscribers == null) {
+            return;
+        }
+        Set<DataWithMediaType> event = SseEmitter.event()
+                .name(topic.name().toLowerCase(Locale.ROOT))
+                .data(Map.of("topic", topic), MediaType.APPLICATION_JSON)
+                .build();
+        for (Subscriber subscriber : userSubscribers) {
+            enqueue(subscriber, event);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onExpenseChanged(ExpenseChangedEvent event) {
+        publish(event.userId(), Topic.EXPENSES);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onCategoryChanged(CategoryChangedEvent event) {
+        publish(event.userId(), Topic.CATEGORIES);
+    }
+
+    /**
+     * Keeps proxies from closing idle streams and notices clients that went away without
+     * closing the connection.
+     */
+    @Scheduled(fixedDelayString = "${app.sse.heartbeat-ms:30000}")
+    void heartbeat() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> {
+            if (subscriber.queue.isEmpty()) {
+                enqueue(subscriber, HEARTBEAT);
+            }
+        }));
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("sse.subscribers", this, ChangeNotificationHub::getSubscriberCount)
+                .description("Open change notification streams")
+                .register(registry);
+        dropped = Counter.builder("sse.subscribers.dropped")
+                .description("Streams disconnected because the client did not keep up")
+                .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        senders.shutdownNow();
+    }
+
+    private void enqueue(Subscriber subscriber, Set<DataWithMediaType> event) {
+        if (!subscriber.queue.offer(event)) {
+            if (dropped != null) {
+                dropped.increment();
+            }
+            disconnect(subscriber, "buffer full");
+            return;
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            Set<DataWithMediaType> event;
+            while ((event = subscriber.queue.poll()) != null) {
+                try {
+                    subscriber.emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    remove(subscriber);
+                    return;
+                }
+            }
+            subscriber.draining.set(false);
+            // An event offered after the last poll but before the flag was cleared found
+            // the drainer still running; pick it up rather than leave it queued.
+        } while (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    /**
+     * Completing the emitter waits for a send in progress, which for a stuck client lasts
+     * until the socket write times out, so it is done off the publishing thread.
+     */
+    private void disconnect(Subscriber subscriber, String reason) {
+        remove(subscriber);
+        close(subscriber, reason);
+    }
+
+    /** Closes a subscriber already taken out of {@link #subscribers}. */
+    private void close(Subscriber subscriber, String reason) {
+        log.debug("Closing change stream of user {}: {}", subscriber.userId, reason);
+        subscriber.queue.clear();
+        senders.execute(subscriber.emitter::complete);
+    }
+
+    private void remove(Subscriber subscriber) {
+        boolean[] removed = new boolean[1];
+        subscribers.computeIfPresent(subscriber.userId, (key, userSubscribers) -> {
+            removed[0] = userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+        if (removed[0]) {
+            subscriberCount.decrementAndGet();
+            subscriber.queue.clear();
+        }
+    }
+
+    private static final class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final Queue<Set<DataWithMediaType>> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(Long userId, SseEmitter emitter, int bufferSize) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package graduate.finance_dashboard.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user version stamps of the expense and category collections, used as ETags so a
+ * poll of unchanged data is answered with 304 before any query runs.
+ * <p>
+ * Stamps are drawn from one process-wide counter and are bumped only after a write has
+ * committed. A user without a tracked stamp (never seen, or evicted) gets a fresh value,
+ * which no client can hold yet, so eviction costs at most one full response. The random
+ * epoch keeps stamps from a previous run from matching after a restart.
+ */
+@Component
+public class CollectionVersions {
+
+    public enum Collection {
+        EXPENSES, CATEGORIES
+    }
+
+    private record Key(Collection collection, Long userId) {
+    }
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final AtomicLong clock = new AtomicLong();
+    private final Cache<Key, Long> stamps;
+
+    public CollectionVersions(@Value("${app.collection-versions.max-size:100000}") long maxSize) {
+        this.stamps = Caffeine.newBuilder().maximumSize(maxSize).build();
+    }
+
+    /**
+     * The strong ETag of the collection as of now. Callers must take it before reading the
+     * collection, so that a concurrent write can only make the tag older than the data.
+     */
+    public String etag(Collection collection, Long userId) {
+        return "\"" + collection.name().charAt(0) + epoch + "-" + Long.toString(stamp(collection, userId), 36) + "\"";
+    }
+
+    /**
+     * The raw version of the collection, for keeping caches of it in step. Same rule as
+     * for {@link #etag}: take it before reading.
+     */
+    public long stamp(Collection collection, Long userId) {
+        return stamps.get(new Key(collection, userId), key -> clock.incrementAndGet());
+    }
+
+    public void bump(Collection collection, Long userId) {
+        stamps.put(new Key(collection, userId), clock.incrementAndGet());
+    }
+
+    /**
+     * Forgets every stamp; each collection gets a fresh one on its next read.
+     */
+    public void invalidateAll() {
+        stamps.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onExpenseChanged(ExpenseChangedEvent event) {
+        bump(Collection.EXPENSES, event.userId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onCategoryChanged(CategoryChangedEvent event) {
+        bump(Collection.CATEGORIES, event.userId());
+    }
+}
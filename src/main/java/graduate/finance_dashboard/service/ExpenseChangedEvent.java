@@ -0,0 +1,9 @@
+package graduate.finance_dashboard.service;
+
+/**
+ * Published inside the transaction whenever expenses of a user are created, updated or
+ * deleted. Listeners that must not act on rolled-back changes use
+ * {@code @TransactionalEventListener}.
+ */
+public record ExpenseChangedEvent(Long userId) {
+}
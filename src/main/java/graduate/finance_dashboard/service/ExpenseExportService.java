@@ -0,0 +1,110 @@
+package graduate.finance_dashboard.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graduate.finance_dashboard.dto.ExpenseExportFormat;
+import graduate.finance_dashboard.exception.ApiException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a user's expenses to an output stream in constant memory. Rows are read in
+ * keyset windows of {@code app.export.window-size}, newest first, each through a
+ * forward-only cursor in its own short read-only transaction. The window is written out
+ * only after its transaction ends, so a slow client never holds a database connection.
+ */
+@Service
+@Slf4j
+public class ExpenseExportService {
+
+    public record Filter(Long userId, Long categoryId, LocalDateTime start, LocalDateTime end) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final int windowSize;
+
+    public ExpenseExportService(DataSource dataSource,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper,
+                                @Value("${app.export.window-size:1000}") int windowSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(windowSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.windowSize = windowSize;
+    }
+
+    public void export(Filter filter, ExpenseExportFormat format, OutputStream out) throws IOException {
+        if (filter.start() != null && filter.end() != null && filter.start().isAfter(filter.end())) {
+            throw new ApiException("Start date must be earlier than the end date", HttpStatus.BAD_REQUEST);
+        }
+
+        log.debug("Exporting expenses for user: {} as {}", filter.userId(), format);
+        List<ExpenseExportWriter.Row> window = new ArrayList<>(windowSize);
+        long exported = 0;
+        try (ExpenseExportWriter writer = ExpenseExportWriter.create(format, out, objectMapper)) {
+            ExpenseExportWriter.Row last = null;
+            do {
+                window.clear();
+                readWindow(filter, last, window);
+                writer.writeWindow(window);
+                exported += window.size();
+                last = window.isEmpty() ? null : window.get(window.size() - 1);
+            } while (window.size() == windowSize);
+        }
+        log.debug("Exported {} expenses for user: {}", exported, filter.userId());
+    }
+
+    private void readWindow(Filter filter, ExpenseExportWriter.Row after, List<ExpenseExportWriter.Row> window) {
+        StringBuilder sql = new StringBuilder(
+                "select id, cast(amount * 100 as bigint) as amount_minor, currency, description, category_id, created_at"
+                        + " from expense where user_id = ?");
+        List<Object> args = new ArrayList<>(8);
+        args.add(filter.userId());
+        if (filter.categoryId() != null) {
+            sql.append(" and category_id = ?");
+            args.add(filter.categoryId());
+        }
+        if (filter.start() != null) {
+            sql.append(" and created_at >= ?");
+            args.add(filter.start());
+        }
+        if (filter.end() != null) {
+            sql.append(" and created_at <= ?");
+            args.add(filter.end());
+        }
+        if (after != null) {
+            sql.append(" and (created_at < ? or (created_at = ? and id < ?))");
+            args.add(after.createdAt());
+            args.add(after.createdAt());
+            args.add(after.id());
+        }
+        sql.append(" order by created_at desc, id desc limit ?");
+        args.add(windowSize);
+
+        readOnlyTransaction.executeWithoutResult(status ->
+                jdbcTemplate.query(sql.toString(), resultSet -> {
+                    window.add(new ExpenseExportWriter.Row(
+                            resultSet.getLong("id"),
+                            resultSet.getLong("amount_minor"),
+                            resultSet.getString("currency"),
+                            resultSet.getString("description"),
+                            resultSet.getLong("category_id"),
+                            resultSet.getObject("created_at", LocalDateTime.class)));
+                }, args.toArray()));
+    }
+}
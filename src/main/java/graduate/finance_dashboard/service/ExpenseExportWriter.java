@@ -0,0 +1,203 @@
+package graduate.finance_dashboard.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graduate.finance_dashboard.dto.ExpenseExportFormat;
+import graduate.finance_dashboard.model.Money;
+
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Serializes exported expenses one window at a time. Implementations write straight to
+ * the output stream and keep no rows between windows.
+ */
+public interface ExpenseExportWriter extends AutoCloseable {
+
+    /**
+     * One exported expense; {@code amount} is in minor units, and {@code currency} is null
+     * for expenses in the owner's base currency.
+     */
+    record Row(long id, long amount, String currency, String description, long categoryId, LocalDateTime createdAt) {
+    }
+
+    void writeWindow(List<Row> rows) throws IOException;
+
+    @Override
+    void close() throws IOException;
+
+    static ExpenseExportWriter create(ExpenseExportFormat format, OutputStream out, ObjectMapper objectMapper)
+            throws IOException {
+        return switch (format) {
+            case CSV -> new Csv(out);
+            case NDJSON -> new Ndjson(objectMapper.getFactory().createGenerator(out));
+            case COLUMNAR -> new Columnar(out);
+        };
+    }
+
+    final class Csv implements ExpenseExportWriter {
+
+        private final Writer writer;
+        private final char[] amount = new char[Money.MAX_FORMATTED_LENGTH];
+
+        Csv(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write("id,amount,description,categoryId,date,currency\n");
+        }
+
+        @Override
+        public void writeWindow(List<Row> rows) throws IOException {
+            for (Row row : rows) {
+                writer.write(Long.toString(row.id()));
+                writer.write(',');
+                writer.write(amount, 0, Money.format(row.amount(), amount));
+                writer.write(',');
+                writeEscaped(row.description());
+                writer.write(',');
+                writer.write(Long.toString(row.categoryId()));
+                writer.write(',');
+                writer.write(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(row.createdAt()));
+                writer.write(',');
+                if (row.currency() != null) {
+                    writer.write(row.currency());
+                }
+                writer.write('\n');
+            }
+        }
+
+        private void writeEscaped(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    /**
+     * One JSON object per line, with the same field names as {@code ExpenseDto}.
+     */
+    final class Ndjson implements ExpenseExportWriter {
+
+        private final JsonGenerator generator;
+        private final char[] amount = new char[Money.MAX_FORMATTED_LENGTH];
+
+        Ndjson(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public void writeWindow(List<Row> rows) throws IOException {
+            for (Row row : rows) {
+                generator.writeStartObject();
+                generator.writeNumberField("id", row.id());
+                generator.writeFieldName("amount");
+                generator.writeNumber(amount, 0, Money.format(row.amount(), amount));
+                generator.writeStringField("currency", row.currency());
+                generator.writeStringField("description", row.description());
+                generator.writeNumberField("categoryId", row.categoryId());
+                generator.writeStringField("date", DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(row.createdAt()));
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    /**
+     * Column-oriented binary layout, big-endian:
+     * <pre>
+     * file   := "FDXC" version:u8 block* int32(0)
+     * block  := rows:int32
+     *           id:int64[rows]
+     *           createdAt:int64[rows]      local date-time as milliseconds since 1970-01-01T00:00
+     *           categoryId:int64[rows]
+     *           amount:int64[rows]         minor units, two decimal places
+     *           description:(length:int32 utf8:byte[length])[rows], length -1 for null
+     *           currency:byte[3][rows]     ASCII ISO 4217 code, zero bytes for the base currency
+     * </pre>
+     * Each export window becomes one block, so a reader can process the file block by block.
+     */
+    final class Columnar implements ExpenseExportWriter {
+
+        static final byte[] MAGIC = {'F', 'D', 'X', 'C'};
+        private static final byte[] NO_CURRENCY = new byte[3];
+        static final int VERSION = 2;
+
+        private final DataOutputStream out;
+
+        Columnar(OutputStream out) throws IOException {
+            this.out = new DataOutputStream(out);
+            this.out.write(MAGIC);
+            this.out.writeByte(VERSION);
+        }
+
+        @Override
+        public void writeWindow(List<Row> rows) throws IOException {
+            if (rows.isEmpty()) {
+                return;
+            }
+            out.writeInt(rows.size());
+            for (Row row : rows) {
+                out.writeLong(row.id());
+            }
+            for (Row row : rows) {
+                LocalDateTime createdAt = row.createdAt();
+                out.writeLong(createdAt.toEpochSecond(ZoneOffset.UTC) * 1000 + createdAt.getNano() / 1_000_000);
+            }
+            for (Row row : rows) {
+                out.writeLong(row.categoryId());
+            }
+            for (Row row : rows) {
+                out.writeLong(row.amount());
+            }
+            for (Row row : rows) {
+                if (row.description() == null) {
+                    out.writeInt(-1);
+                } else {
+                    byte[] bytes = row.description().getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+            }
+            for (Row row : rows) {
+                if (row.currency() == null) {
+                    out.write(NO_CURRENCY);
+                } else {
+                    out.writeBytes(row.currency());
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.writeInt(0);
+            out.close();
+        }
+    }
+}
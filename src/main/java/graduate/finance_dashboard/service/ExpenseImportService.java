@@ -0,0 +1,276 @@
+package graduate.finance_dashboard.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import graduate.finance_dashboard.dto.ExpenseImportResultDto;
+import graduate.finance_dashboard.dto.ExpenseImportRow;
+import graduate.finance_dashboard.exception.ApiException;
+import graduate.finance_dashboard.model.Category;
+import graduate.finance_dashboard.model.Money;
+import graduate.finance_dashboard.model.User;
+import graduate.finance_dashboard.repository.CategoryRepository;
+import graduate.finance_dashboard.repository.ExpenseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports expenses from a CSV or NDJSON stream. Rows are parsed one at a time and
+ * written with JDBC batch inserts, so neither the request body nor the imported rows
+ * are ever held in memory as a whole. Invalid rows are skipped and reported with their
+ * line number; everything else is committed in a single transaction.
+ */
+@Service
+@Slf4j
+public class ExpenseImportService {
+
+    private static final String INSERT_SQL = """
+            insert into expense (amount, currency, description, category_id, user_id, created_at, version)
+            values (?, ?, ?, ?, ?, ?, 0)
+            """;
+    private static final int MAX_DESCRIPTION_LENGTH = 255;
+
+    private final CategoryRepository categoryRepository;
+    private final ExpenseRollupService expenseRollupService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ChangeLogService changeLogService;
+    private final ExpenseRepository expenseRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FxRateService fxRateService;
+    private final CsvMapper csvMapper = CsvMapper.builder().enable(CsvParser.Feature.TRIM_SPACES).build();
+    private final int batchSize;
+    private final long maxRows;
+
+    public ExpenseImportService(CategoryRepository categoryRepository,
+                                ExpenseRollupService expenseRollupService,
+                                JdbcTemplate jdbcTemplate,
+                                ObjectMapper objectMapper,
+                                ChangeLogService changeLogService,
+                                ExpenseRepository expenseRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                FxRateService fxRateService,
+                                @Value("${app.import.batch-size:500}") int batchSize,
+                                @Value("${app.import.max-rows:200000}") long maxRows) {
+        this.categoryRepository = categoryRepository;
+        this.expenseRollupService = expenseRollupService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.changeLogService = changeLogService;
+        this.expenseRepository = expenseRepository;
+        this.eventPublisher = eventPublisher;
+        this.fxRateService = fxRateService;
+        this.batchSize = batchSize;
+        this.maxRows = maxRows;
+    }
+
+    private record PendingExpense(long amount, String currency, String description, Long categoryId,
+                                  LocalDateTime createdAt) {
+    }
+
+    /**
+     * Reads CSV with a header line naming the columns, e.g.
+     * {@code amount,currency,description,category,date}.
+     */
+    @Transactional
+    public ExpenseImportResultDto importCsv(User user, InputStream body) {
+        CsvSchema schema = CsvSchema.emptySchema().withHeader();
+        try (MappingIterator<ExpenseImportRow> rows = csvMapper
+                .readerFor(ExpenseImportRow.class)
+                .with(schema)
+                .readValues(body)) {
+            return importRows(user, rows, 1);
+        } catch (IOException e) {
+            throw new ApiException("Failed to read import: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Reads one JSON object per line.
+     */
+    @Transactional
+    public ExpenseImportResultDto importNdjson(User user, InputStream body) {
+        try (MappingIterator<ExpenseImportRow> rows = objectMapper
+                .readerFor(ExpenseImportRow.class)
+                .readValues(body)) {
+            return importRows(user, rows, 0);
+        } catch (IOException e) {
+            throw new ApiException("Failed to read import: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Rows are reported by line, counting one line per record after {@code headerLines};
+     * a quoted CSV value spanning several lines shifts the numbers of the rows after it.
+     */
+    private ExpenseImportResultDto importRows(User user, MappingIterator<ExpenseImportRow> rows, int headerLines)
+            throws IOException {
+        Long userId = user.getUser_id();
+        changeLogService.lockUser(userId);
+        long lastExpenseId = expenseRepository.findMaxIdByUserId(userId);
+        Map<String, Long> categoryIdsByName = new HashMap<>();
+        Set<Long> categoryIds = new HashSet<>();
+        for (Category category : categoryRepository.findByUser(user)) {
+            categoryIdsByName.put(category.getName(), category.getId());
+            categoryIds.add(category.getId());
+        }
+
+        ExpenseImportResultDto result = new ExpenseImportResultDto();
+        // Count and total in minor units per rollup row, summed without boxing.
+        Map<ExpenseRollupService.Contribution, long[]> totals = new HashMap<>();
+        List<PendingExpense> batch = new ArrayList<>(batchSize);
+        LocalDateTime importedAt = LocalDateTime.now();
+        long rowCount = 0;
+
+        while (nextRow(rows)) {
+            ExpenseImportRow row;
+            try {
+                row = rows.nextValue();
+            } catch (JsonProcessingException e) {
+                throw malformedInput(e);
+            }
+            if (++rowCount > maxRows) {
+                throw new ApiException("An import may contain at most " + maxRows + " rows", HttpStatus.PAYLOAD_TOO_LARGE);
+            }
+            long line = rowCount + headerLines;
+
+            PendingExpense expense;
+            try {
+                expense = toPendingExpense(row, categoryIdsByName, categoryIds, importedAt);
+            } catch (IllegalArgumentException e) {
+                result.reject(line, e.getMessage());
+                continue;
+            }
+
+            batch.add(expense);
+            // Rollup rows are keyed by month, category and currency; the amount is summed separately.
+            ExpenseRollupService.Contribution key = new ExpenseRollupService.Contribution(userId,
+                    expense.categoryId(), ExpenseRollupService.monthOf(expense.createdAt()), expense.currency(), 0);
+            long[] total = totals.computeIfAbsent(key, k -> new long[2]);
+            total[0]++;
+            total[1] = Math.addExact(total[1], expense.amount());
+
+            if (batch.size() == batchSize) {
+                insert(batch, userId);
+                result.setImported(result.getImported() + batch.size());
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insert(batch, userId);
+            result.setImported(result.getImported() + batch.size());
+        }
+
+        totals.forEach((key, total) -> expenseRollupService.recordAdded(
+                new ExpenseRollupService.Contribution(key.userId(), key.categoryId(), key.month(), key.currency(),
+                        total[1]),
+                total[0]));
+        if (result.getImported() > 0) {
+            changeLogService.recordExpensesImported(userId, lastExpenseId);
+            eventPublisher.publishEvent(new ExpenseChangedEvent(userId));
+        }
+
+        log.info("Imported {} expenses for user: {}, rejected {}", result.getImported(), userId, result.getRejected());
+        return result;
+    }
+
+    private boolean nextRow(MappingIterator<ExpenseImportRow> rows) throws IOException {
+        try {
+            return rows.hasNextValue();
+        } catch (JsonProcessingException e) {
+            throw malformedInput(e);
+        }
+    }
+
+    private static ApiException malformedInput(JsonProcessingException e) {
+        String position = e.getLocation() != null ? " at line " + e.getLocation().getLineNr() : "";
+        return new ApiException("Malformed input" + position + ": " + e.getOriginalMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    private PendingExpense toPendingExpense(ExpenseImportRow row, Map<String, Long> categoryIdsByName,
+                                            Set<Long> categoryIds, LocalDateTime importedAt) {
+        if (row.getAmount() == null || row.getAmount().isBlank()) {
+            throw new IllegalArgumentException("Amount is required");
+        }
+        long amount;
+        try {
+            amount = Money.parseMinorUnitsWithExponent(row.getAmount());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + row.getAmount());
+        }
+        if (amount <= 0) {
+            throw new IllegalArgumentException("The amount must be greater than zero");
+        }
+
+        String currency = row.getCurrency() != null && !row.getCurrency().isBlank() ? row.getCurrency() : null;
+        if (currency != null && !fxRateService.current().knows(currency)) {
+            throw new IllegalArgumentException("Unsupported currency: " + currency);
+        }
+
+        String description = row.getDescription() != null && !row.getDescription().isEmpty()
+                ? row.getDescription() : null;
+        if (description != null && description.length() > MAX_DESCRIPTION_LENGTH) {
+            throw new IllegalArgumentException("Description is longer than " + MAX_DESCRIPTION_LENGTH + " characters");
+        }
+
+        Long categoryId;
+        if (row.getCategoryId() != null) {
+            if (!categoryIds.contains(row.getCategoryId())) {
+                throw new IllegalArgumentException("Unknown category ID: " + row.getCategoryId());
+            }
+            categoryId = row.getCategoryId();
+        } else if (row.getCategory() != null && !row.getCategory().isBlank()) {
+            categoryId = categoryIdsByName.get(row.getCategory());
+            if (categoryId == null) {
+                throw new IllegalArgumentException("Unknown category: " + row.getCategory());
+            }
+        } else {
+            throw new IllegalArgumentException("Category is required");
+        }
+
+        return new PendingExpense(amount, currency, description, categoryId, parseDate(row.getDate(), importedAt));
+    }
+
+    private static LocalDateTime parseDate(String date, LocalDateTime defaultDate) {
+        if (date == null || date.isBlank()) {
+            return defaultDate;
+        }
+        try {
+            return date.length() == 10 ? LocalDate.parse(date).atStartOfDay() : LocalDateTime.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date: " + date);
+        }
+    }
+
+    private void insert(List<PendingExpense> batch, Long userId) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (statement, expense) -> {
+            statement.setBigDecimal(1, Money.toBigDecimal(expense.amount()));
+            statement.setString(2, expense.currency());
+            statement.setString(3, expense.description());
+            statement.setLong(4, expense.categoryId());
+            statement.setLong(5, userId);
+            statement.setObject(6, expense.createdAt());
+        });
+    }
+}
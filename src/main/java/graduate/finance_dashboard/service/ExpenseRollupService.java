@@ -0,0 +1,201 @@
+package graduate.finance_dashboard.service;
+
+import graduate.finance_dashboard.dto.RollupTotal;
+import graduate.finance_dashboard.model.Expense;
+import graduate.finance_dashboard.model.ExpenseRollup;
+import graduate.finance_dashboard.model.Money;
+import graduate.finance_dashboard.repository.ExpenseRepository;
+import graduate.finance_dashboard.repository.ExpenseRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps {@link ExpenseRollup} rows in step with the expense table. The record methods
+ * must run inside the transaction that writes the expense, so that totals and rows
+ * commit or roll back together.
+ * <p>
+ * Rows are kept per currency, with a null currency for the owner's base currency, and
+ * converted when they are read.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExpenseRollupService {
+
+    private final ExpenseRollupRepository expenseRollupRepository;
+    private final ExpenseRepository expenseRepository;
+    private final ChangeLogService changeLogService;
+
+    /**
+     * Identifies the rollup row an expense counts towards and the amount it contributes,
+     * in minor units.
+     */
+    public record Contribution(Long userId, Long categoryId, LocalDate month, String currency, long amount) {
+
+        public static Contribution of(Expense expense) {
+            return new Contribution(
+                    expense.getUser().getUser_id(),
+                    expense.getCategory().getId(),
+                    monthOf(expense.getCreatedAt()),
+                    expense.getCurrency(),
+                    expense.getAmount().minorUnits());
+        }
+    }
+
+    /**
+     * Discrepancy between a stored rollup row and the totals recomputed from expenses.
+     */
+    public record Drift(Long userId, Long categoryId, LocalDate month, String currency,
+                        BigDecimal expectedTotal, long expectedCount,
+                        BigDecimal actualTotal, long actualCount) {
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAdded(Contribution contribution) {
+        apply(contribution, contribution.amount(), 1);
+    }
+
+    /**
+     * Adds {@code count} expenses whose amounts sum to {@code total.amount()} at once.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAdded(Contribution total, long count) {
+        apply(total, total.amount(), count);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRemoved(Contribution contribution) {
+        apply(contribution, Math.negateExact(contribution.amount()), -1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChanged(Contribution before, Contribution after) {
+        boolean sameRow = before.userId().equals(after.userId())
+                && before.categoryId().equals(after.categoryId())
+                && before.month().equals(after.month())
+                && Objects.equals(before.currency(), after.currency());
+        if (!sameRow) {
+            recordRemoved(before);
+            recordAdded(after);
+        } else if (before.amount() != after.amount()) {
+            apply(after, Math.subtractExact(after.amount(), before.amount()), 0);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeCategory(Long categoryId) {
+        int removed = expenseRollupRepository.deleteByCategoryId(categoryId);
+        log.debug("Removed {} rollup rows of category: {}", removed, categoryId);
+    }
+
+    /**
+     * Gives the user's rows without a currency the given one; see
+     * {@code UserService.setBaseCurrency}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void assignCurrency(Long userId, String currency) {
+        int assigned = expenseRollupRepository.assignCurrency(userId, currency);
+        log.debug("Assigned {} to {} rollup rows of user: {}", currency, assigned, userId);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeUser(Long userId) {
+        int removed = expenseRollupRepository.deleteByUserId(userId);
+        log.debug("Removed {} rollup rows of user: {}", removed, userId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<RollupTotal> getTotals(Long userId, LocalDate from, LocalDate to) {
+        return expenseRollupRepository.findTotals(userId, monthOf(from.atStartOfDay()), monthOf(to.atStartOfDay()));
+    }
+
+    /**
+     * Recomputes the user's totals from the expense table and returns every row that
+     * differs from what is stored, including rows that are missing on either side.
+     */
+    @Transactional(readOnly = true)
+    public List<Drift> verify(Long userId) {
+        Map<String, RollupTotal> stored = new HashMap<>();
+        for (RollupTotal total : expenseRollupRepository.findAllTotals(userId)) {
+            if (total.count() != 0) {
+                stored.put(key(total), total);
+            }
+        }
+
+        List<Drift> drift = new ArrayList<>();
+        for (RollupTotal expected : expenseRepository.computeMonthlyTotals(userId)) {
+            RollupTotal actual = stored.remove(key(expected));
+            if (actual == null
+                    || actual.count() != expected.count()
+                    || actual.total().compareTo(expected.total()) != 0) {
+                drift.add(new Drift(userId, expected.categoryId(), expected.month(), expected.currency(),
+                        expected.total(), expected.count(),
+                        actual != null ? actual.total() : null, actual != null ? actual.count() : 0));
+            }
+        }
+        for (RollupTotal orphan : stored.values()) {
+            drift.add(new Drift(userId, orphan.categoryId(), orphan.month(), orphan.currency(),
+                    BigDecimal.ZERO, 0, orphan.total(), orphan.count()));
+        }
+        return drift;
+    }
+
+    /**
+     * Replaces all of the user's rollup rows with totals recomputed from the expense table.
+     * Holds the user's lock so that no expense write lands between the recount and the save.
+     */
+    @Transactional
+    public void rebuild(Long userId) {
+        changeLogService.lockUser(userId);
+        expenseRollupRepository.deleteByUserId(userId);
+        List<ExpenseRollup> rollups = expenseRepository.computeMonthlyTotals(userId).stream()
+                .map(total -> ExpenseRollup.builder()
+                        .userId(userId)
+                        .categoryId(total.categoryId())
+                        .month(total.month())
+                        .currency(total.currency())
+                        .total(total.total())
+                        .expenseCount(total.count())
+                        .build())
+                .toList();
+        expenseRollupRepository.saveAll(rollups);
+        log.info("Rebuilt {} rollup rows for user: {}", rollups.size(), userId);
+    }
+
+    private void apply(Contribution contribution, long amount, long count) {
+        BigDecimal total = Money.toBigDecimal(amount);
+        int updated = expenseRollupRepository.increment(contribution.userId(), contribution.categoryId(),
+                contribution.month(), contribution.currency(), total, count);
+        if (updated == 0) {
+            expenseRollupRepository.save(ExpenseRollup.builder()
+                    .userId(contribution.userId())
+                    .categoryId(contribution.categoryId())
+                    .month(contribution.month())
+                    .currency(contribution.currency())
+                    .total(total)
+                    .expenseCount(count)
+                    .build());
+        }
+    }
+
+    private static String key(RollupTotal total) {
+        return total.categoryId() + "|" + total.month() + "|" + total.currency();
+    }
+
+    static LocalDate monthOf(LocalDateTime dateTime) {
+        Objects.requireNonNull(dateTime, "Expense date is required");
+        return dateTime.toLocalDate().withDayOfMonth(1);
+    }
+}
@@ -0,0 +1,63 @@
+package graduate.finance_dashboard.service;
+
+import graduate.finance_dashboard.exception.ApiException;
+import graduate.finance_dashboard.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Periodically recomputes every user's rollup rows from the expense table and reports
+ * the rows that drifted. With {@code app.rollup.repair-drift} enabled the affected users'
+ * rollups are rebuilt as well.
+ */
+@Component
+@Slf4j
+public class ExpenseRollupVerificationJob {
+
+    private final ExpenseRollupService expenseRollupService;
+    private final UserRepository userRepository;
+    private final Counter driftCounter;
+    private final boolean repairDrift;
+
+    public ExpenseRollupVerificationJob(ExpenseRollupService expenseRollupService,
+                                        UserRepository userRepository,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${app.rollup.repair-drift:false}") boolean repairDrift) {
+        this.expenseRollupService = expenseRollupService;
+        this.userRepository = userRepository;
+        this.driftCounter = Counter.builder("expense.rollup.drift")
+                .description("Rollup rows found to differ from the expense table")
+                .register(meterRegistry);
+        this.repairDrift = repairDrift;
+    }
+
+    @Scheduled(cron = "${app.rollup.verify-cron:-}")
+    public void verifyAll() {
+        int drifted = 0;
+        for (Long userId : userRepository.findAllIds()) {
+            List<ExpenseRollupService.Drift> drift = expenseRollupService.verify(userId);
+            if (drift.isEmpty()) {
+                continue;
+            }
+
+            drifted++;
+            driftCounter.increment(drift.size());
+            drift.forEach(row -> log.warn("Rollup drift: {}", row));
+            if (repairDrift) {
+                try {
+                    expenseRollupService.rebuild(userId);
+                } catch (ApiException e) {
+                    // The account was deleted since it was verified, its rollups with it.
+                    log.debug("Skipped rollup rebuild for user {}: {}", userId, e.getMessage());
+                }
+            }
+        }
+        log.info("Rollup verification finished, users with drift: {}", drifted);
+    }
+}
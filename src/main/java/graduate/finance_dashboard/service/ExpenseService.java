@@ -1,48 +1,105 @@
 package graduate.finance_dashboard.service;
 
+import graduate.finance_dashboard.dto.ExpenseCursor;
 import graduate.finance_dashboard.exception.ApiException;
 import graduate.finance_dashboard.model.Category;
+import graduate.finance_dashboard.model.ChangeLogEntry.EntityType;
+import graduate.finance_dashboard.model.ChangeLogEntry.Operation;
 import graduate.finance_dashboard.model.Expense;
 import graduate.finance_dashboard.model.User;
 import graduate.finance_dashboard.repository.ExpenseRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ExpenseService {
 
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final ExpenseRepository expenseRepository;
+    private final ExpenseRollupService expenseRollupService;
+    private final EntityManager entityManager;
+    private final ChangeLogService changeLogService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FxRateService fxRateService;
 
     @Transactional
     public Expense createExpense(Expense expense, User user) {
-        if (expense.getAmount() == null || expense.getAmount().signum() <= 0) {
+        if (expense.getAmount() == null || !expense.getAmount().isPositive()) {
             throw new ApiException("The amount must be greater than zero", HttpStatus.BAD_REQUEST);
         }
+        if (expense.getCurrency() != null) {
+            fxRateService.requireKnown(expense.getCurrency());
+        }
 
+        changeLogService.lockUser(user.getUser_id());
         expense.setUser(user);
-        log.info("Creating expense for user: {} in category: {}", user.getUser_id(),
+        log.debug("Creating expense for user: {} in category: {}", user.getUser_id(),
                 expense.getCategory() != null ? expense.getCategory().getName() : "No category");
 
-        return expenseRepository.save(expense);
+        Expense savedExpense = expenseRepository.save(expense);
+        expenseRollupService.recordAdded(ExpenseRollupService.Contribution.of(savedExpense));
+        changeLogService.record(user.getUser_id(), EntityType.EXPENSE, savedExpense.getId(), Operation.UPSERT);
+        eventPublisher.publishEvent(new ExpenseChangedEvent(user.getUser_id()));
+        return savedExpense;
     }
 
     @Transactional(readOnly = true)
     public List<Expense> getExpensesByUser(User user) {
-        log.info("Fetching expenses for user: {}", user.getUser_id());
+        log.debug("Fetching expenses for user: {}", user.getUser_id());
         return expenseRepository.findByUser(user);
     }
 
+    /**
+     * Returns at most {@code limit} expenses following the given cursor, newest first.
+     * A null cursor starts from the most recent expense.
+     */
+    @Transactional(readOnly = true)
+    public List<Expense> getExpensePage(User user, ExpenseCursor after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ApiException("Page size must be between 1 and " + MAX_PAGE_SIZE, HttpStatus.BAD_REQUEST);
+        }
+
+        log.debug("Fetching expense page for user: {} after: {}", user.getUser_id(), after);
+        if (after == null) {
+            return expenseRepository.findFirstPageByUser(user, Limit.of(limit));
+        }
+        return expenseRepository.findPageByUserAfter(user, after.createdAt(), after.id(), Limit.of(limit));
+    }
+
+    /**
+     * Hands every expense of the user to {@code action} in page order without keeping them
+     * around: each row is detached once consumed, so memory use does not grow with the
+     * number of expenses.
+     */
+    @Transactional(readOnly = true)
+    public void forEachExpenseByUser(User user, Consumer<Expense> action) {
+        log.debug("Streaming expenses for user: {}", user.getUser_id());
+        try (Stream<Expense> expenses = expenseRepository.streamByUser(user)) {
+            expenses.forEach(expense -> {
+                action.accept(expense);
+                entityManager.detach(expense);
+            });
+        }
+    }
+
     @Transactional(readOnly = true)
     public List<Expense> getExpensesByUserAndCategory(User user, Category category) {
-        log.info("Fetching expenses for user: {} in category: {}", user.getUser_id(), category.getName());
+        log.debug("Fetching expenses for user: {} in category: {}", user.getUser_id(), category.getName());
         return expenseRepository.findByUserAndCategory(user, category);
     }
 
@@ -55,7 +112,7 @@ public class ExpenseService {
             throw new ApiException("Start date must be earlier than the end date", HttpStatus.BAD_REQUEST);
         }
 
-        log.info("Fetching expenses for user: {} within the range {} - {}", user.getUser_id(), start, end);
+        log.debug("Fetching expenses for user: {} within the range {} - {}", user.getUser_id(), start, end);
         return expenseRepository.findByUserAndCreatedAtBetween(user, start, end);
     }
 
@@ -68,38 +125,66 @@ public class ExpenseService {
                 });
     }
 
+    /**
+     * Applies the non-null fields of {@code expenseDetails} to the stored expense in place.
+     * When {@code expectedVersion} is given, the update is rejected with 409 unless it
+     * matches the stored version, so a client cannot overwrite an edit it has not seen.
+     */
     @Transactional
-    public Expense updateExpense(Long id, Expense expenseDetails, User user) {
+    public Expense updateExpense(Long id, Expense expenseDetails, Long expectedVersion, User user) {
+        changeLogService.lockUser(user.getUser_id());
         Expense expense = getExpenseById(id);
 
         if (!expense.getUser().getUser_id().equals(user.getUser_id())) {
             log.error("User {} does not have permission to edit expense {}", user.getUser_id(), id);
             throw new ApiException("You do not have permission to edit this expense", HttpStatus.FORBIDDEN);
         }
+        if (expectedVersion != null && !expectedVersion.equals(expense.getVersion())) {
+            log.warn("Stale update of expense {}: expected version {}, current {}",
+                    id, expectedVersion, expense.getVersion());
+            throw new ApiException("The expense was modified by another request", HttpStatus.CONFLICT);
+        }
+        ExpenseRollupService.Contribution before = ExpenseRollupService.Contribution.of(expense);
 
         if (expenseDetails.getAmount() != null) {
-            if (expenseDetails.getAmount().signum() <= 0) {
+            if (!expenseDetails.getAmount().isPositive()) {
                 throw new ApiException("The amount must be greater than zero", HttpStatus.BAD_REQUEST);
             }
             expense.setAmount(expenseDetails.getAmount());
         }
 
+        if (expenseDetails.getCurrency() != null) {
+            fxRateService.requireKnown(expenseDetails.getCurrency());
+            expense.setCurrency(expenseDetails.getCurrency());
+        }
+
         if (expenseDetails.getDescription() != null) {
             expense.setDescription(expenseDetails.getDescription());
         }
 
         if (expenseDetails.getCategory() != null) {
-            log.info("Changing category of expense {} from {} to {}", id,
-                    expense.getCategory() != null ? expense.getCategory().getName() : "None",
-                    expenseDetails.getCategory().getName());
+            log.debug("Changing category of expense {} from {} to {}", id,
+                    expense.getCategory() != null ? expense.getCategory().getId() : "None",
+                    expenseDetails.getCategory().getId());
             expense.setCategory(expenseDetails.getCategory());
         }
 
-        return expenseRepository.save(expense);
+        Expense savedExpense;
+        try {
+            savedExpense = expenseRepository.saveAndFlush(expense);
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Concurrent update of expense {}", id);
+            throw new ApiException("The expense was modified by another request", HttpStatus.CONFLICT);
+        }
+        expenseRollupService.recordChanged(before, ExpenseRollupService.Contribution.of(savedExpense));
+        changeLogService.record(user.getUser_id(), EntityType.EXPENSE, id, Operation.UPSERT);
+        eventPublisher.publishEvent(new ExpenseChangedEvent(user.getUser_id()));
+        return savedExpense;
     }
 
     @Transactional
     public void deleteExpense(Long id, User user) {
+        changeLogService.lockUser(user.getUser_id());
         Expense expense = getExpenseById(id);
 
         if (!expense.getUser().getUser_id().equals(user.getUser_id())) {
@@ -107,16 +192,11 @@ public class ExpenseService {
             throw new ApiException("You do not have permission to delete this expense", HttpStatus.FORBIDDEN);
         }
 
-        Category category = expense.getCategory();
-        if (category != null) {
-            category.getExpenses().remove(expense);
-            expense.setCategory(null);
-        }
-        
-        expense.setUser(null);
+        expenseRollupService.recordRemoved(ExpenseRollupService.Contribution.of(expense));
 
-        log.info("Deleting expense with ID: {}", id);
-        expenseRepository.deleteById(id);
+        log.debug("Deleting expense with ID: {}", id);
         expenseRepository.delete(expense);
+        changeLogService.record(user.getUser_id(), EntityType.EXPENSE, id, Operation.DELETE);
+        eventPublisher.publishEvent(new ExpenseChangedEvent(user.getUser_id()));
     }
 }
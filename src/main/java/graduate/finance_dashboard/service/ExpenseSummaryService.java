@@ -0,0 +1,230 @@
+package graduate.finance_dashboard.service;
+
+import graduate.finance_dashboard.dto.CategorySummaryDto;
+import graduate.finance_dashboard.dto.CurrencyDayTotal;
+import graduate.finance_dashboard.dto.MonthlyCategoryTotalDto;
+import graduate.finance_dashboard.dto.PeriodSummaryDto;
+import graduate.finance_dashboard.dto.RollupTotal;
+import graduate.finance_dashboard.dto.SummaryBucket;
+import graduate.finance_dashboard.exception.ApiException;
+import graduate.finance_dashboard.model.Money;
+import graduate.finance_dashboard.model.User;
+import graduate.finance_dashboard.repository.ExpenseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Dashboard aggregates computed by the database. Only the grouped rows leave the
+ * database; no expense is loaded as an entity.
+ * <p>
+ * Amounts are reported in the user's base currency. Expenses without a currency of their
+ * own are aggregated by the database as they are. The others come back as one row per
+ * category, currency and day, and each row is converted at that day's factor from
+ * {@link FxRates}, which computes every (currency, day) factor once per rate version. The
+ * conversion work therefore grows with the number of distinct days and currencies, not
+ * with the number of expenses. Monthly totals come from rollup rows kept per currency.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExpenseSummaryService {
+
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseRollupService expenseRollupService;
+    private final FxRateService fxRateService;
+    private final UserService userService;
+
+    @Transactional(readOnly = true)
+    public List<CategorySummaryDto> summarizeByCategory(User user, LocalDateTime start, LocalDateTime end) {
+        validateRange(start, end);
+        log.debug("Summarizing expenses by category for user: {} within the range {} - {}",
+                user.getUser_id(), start, end);
+        List<CategorySummaryDto> summaries = expenseRepository.summarizeByCategory(user, start, end);
+        List<CurrencyDayTotal> foreign = expenseRepository.summarizeForeignByDay(user, start, end);
+        if (foreign.isEmpty()) {
+            return summaries;
+        }
+
+        Map<Long, Totals> totals = new HashMap<>();
+        Map<Long, String> names = new HashMap<>();
+        for (CategorySummaryDto summary : summaries) {
+            totals.put(summary.getCategoryId(), Totals.of(summary.getTotal(), summary.getCount(),
+                    summary.getMin(), summary.getMax()));
+            names.put(summary.getCategoryId(), summary.getCategoryName());
+        }
+        convert(user, foreign, row -> {
+            names.putIfAbsent(row.categoryId(), row.categoryName());
+            return totals.computeIfAbsent(row.categoryId(), id -> new Totals());
+        });
+
+        List<CategorySummaryDto> merged = new ArrayList<>(totals.size());
+        totals.forEach((categoryId, total) -> merged.add(new CategorySummaryDto(categoryId, names.get(categoryId),
+                Money.toBigDecimal(total.total), total.count,
+                Money.toBigDecimal(total.min), Money.toBigDecimal(total.max))));
+        merged.sort(Comparator.comparing(CategorySummaryDto::getTotal).reversed());
+        return merged;
+    }
+
+    @Transactional(readOnly = true)
+    public List<PeriodSummaryDto> summarizeByPeriod(User user, SummaryBucket bucket,
+                                                    LocalDateTime start, LocalDateTime end) {
+        validateRange(start, end);
+        log.debug("Summarizing expenses by {} for user: {} within the range {} - {}",
+                bucket, user.getUser_id(), start, end);
+        List<PeriodSummaryDto> summaries = switch (bucket) {
+            case DAY -> expenseRepository.summarizeByDay(user, start, end);
+            case WEEK -> expenseRepository.summarizeByWeek(user, start, end);
+            case MONTH -> expenseRepository.summarizeByMonth(user, start, end);
+        };
+        List<CurrencyDayTotal> foreign = expenseRepository.summarizeForeignByDay(user, start, end);
+        if (foreign.isEmpty()) {
+            return summaries;
+        }
+
+        Map<LocalDate, Totals> totals = new HashMap<>();
+        for (PeriodSummaryDto summary : summaries) {
+            totals.put(summary.getPeriodStart(), Totals.of(summary.getTotal(), summary.getCount(),
+                    summary.getMin(), summary.getMax()));
+        }
+        convert(user, foreign, row -> totals.computeIfAbsent(periodStart(bucket, row.day()), day -> new Totals()));
+
+        List<PeriodSummaryDto> merged = new ArrayList<>(totals.size());
+        totals.forEach((periodStart, total) -> merged.add(new PeriodSummaryDto(periodStart.atStartOfDay(),
+                Money.toBigDecimal(total.total), total.count,
+                Money.toBigDecimal(total.min), Money.toBigDecimal(total.max))));
+        merged.sort(Comparator.comparing(PeriodSummaryDto::getPeriodStart));
+        return merged;
+    }
+
+    /**
+     * Per-category monthly totals read from the rollup table. The cost depends on the
+     * number of months, categories and currencies in range, not on the number of expenses.
+     * Rows in another currency are converted at the mean factor of their month, so their
+     * totals can differ slightly from the per-day conversion of the other summaries.
+     */
+    @Transactional(readOnly = true)
+    public List<MonthlyCategoryTotalDto> getMonthlyTotals(User user, LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new ApiException("Start and end dates are required", HttpStatus.BAD_REQUEST);
+        }
+        if (from.isAfter(to)) {
+            throw new ApiException("Start date must be earlier than the end date", HttpStatus.BAD_REQUEST);
+        }
+        log.debug("Reading monthly totals for user: {} within the range {} - {}", user.getUser_id(), from, to);
+        List<RollupTotal> rollups = expenseRollupService.getTotals(user.getUser_id(), from, to);
+        if (rollups.stream().allMatch(rollup -> rollup.currency() == null)) {
+            return rollups.stream()
+                    .map(rollup -> new MonthlyCategoryTotalDto(rollup.month(), rollup.categoryId(),
+                            rollup.total(), rollup.count()))
+                    .toList();
+        }
+
+        String base = userService.getBaseCurrency(user.getUser_id());
+        FxRates rates = fxRateService.current();
+        record MonthCategory(LocalDate month, Long categoryId) {
+        }
+        Map<MonthCategory, Totals> totals = new HashMap<>();
+        for (RollupTotal rollup : rollups) {
+            long amount = Money.minorUnits(rollup.total());
+            if (rollup.currency() != null) {
+                LocalDate month = rollup.month();
+                try {
+                    amount = rates.factors(rollup.currency(), base).convertAveraged(amount,
+                            month.toEpochDay(), month.withDayOfMonth(month.lengthOfMonth()).toEpochDay());
+                } catch (IllegalStateException e) {
+                    throw new ApiException("Cannot convert " + rollup.currency() + " into " + base + " in " + month
+                            + ": " + e.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
+                }
+            }
+            totals.computeIfAbsent(new MonthCategory(rollup.month(), rollup.categoryId()), key -> new Totals())
+                    .add(amount, rollup.count(), Long.MAX_VALUE, Long.MIN_VALUE);
+        }
+
+        List<MonthlyCategoryTotalDto> merged = new ArrayList<>(totals.size());
+        totals.forEach((key, total) -> merged.add(new MonthlyCategoryTotalDto(
+                key.month(), key.categoryId(), Money.toBigDecimal(total.total), total.count)));
+        merged.sort(Comparator.comparing(MonthlyCategoryTotalDto::getMonth)
+                .thenComparing(MonthlyCategoryTotalDto::getCategoryId));
+        return merged;
+    }
+
+    /**
+     * Adds each row, converted into the user's base currency, to the totals {@code target}
+     * picks for it.
+     */
+    private void convert(User user, List<CurrencyDayTotal> rows, Function<CurrencyDayTotal, Totals> target) {
+        String base = userService.getBaseCurrency(user.getUser_id());
+        FxRates rates = fxRateService.current();
+        Map<String, FxRates.Factors> factorsByCurrency = new HashMap<>();
+        for (CurrencyDayTotal row : rows) {
+            long day = row.day().toEpochDay();
+            try {
+                FxRates.Factors factors = factorsByCurrency.computeIfAbsent(row.currency(),
+                        currency -> rates.factors(currency, base));
+                target.apply(row).add(
+                        factors.convert(Money.minorUnits(row.total()), day), row.count(),
+                        factors.convert(Money.minorUnits(row.min()), day),
+                        factors.convert(Money.minorUnits(row.max()), day));
+            } catch (IllegalStateException e) {
+                throw new ApiException("Cannot convert " + row.currency() + " into " + base + " on " + row.day()
+                        + ": " + e.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
+            }
+        }
+    }
+
+    private static LocalDate periodStart(SummaryBucket bucket, LocalDate day) {
+        return switch (bucket) {
+            case DAY -> day;
+            case WEEK -> day.with(DayOfWeek.MONDAY);
+            case MONTH -> day.withDayOfMonth(1);
+        };
+    }
+
+    /**
+     * Running totals in minor units of the base currency.
+     */
+    private static final class Totals {
+        long total;
+        long count;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+
+        static Totals of(BigDecimal total, long count, BigDecimal min, BigDecimal max) {
+            Totals totals = new Totals();
+            totals.add(Money.minorUnits(total), count,
+                    min != null ? Money.minorUnits(min) : Long.MAX_VALUE,
+                    max != null ? Money.minorUnits(max) : Long.MIN_VALUE);
+            return totals;
+        }
+
+        void add(long total, long count, long min, long max) {
+            this.total = Math.addExact(this.total, total);
+            this.count += count;
+            this.min = Math.min(this.min, min);
+            this.max = Math.max(this.max, max);
+        }
+    }
+
+    private void validateRange(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null) {
+            throw new ApiException("Start and end dates are required", HttpStatus.BAD_REQUEST);
+        }
+        if (start.isAfter(end)) {
+            throw new ApiException("Start date must be earlier than the end date", HttpStatus.BAD_REQUEST);
+        }
+    }
+}
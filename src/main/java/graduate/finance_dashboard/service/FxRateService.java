@@ -0,0 +1,148 @@
+package graduate.finance_dashboard.service;
+
+import graduate.finance_dashboard.exception.ApiException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Holds the current {@link FxRates} snapshot. Rates are read from the CSV file named by
+ * {@code app.fx.file} when it is set, and from the {@code fx_rate} table otherwise, on
+ * first use and then every {@code app.fx.reload-ms}. A reload that finds the same rates
+ * keeps the old snapshot, so factor tables built from it stay warm; otherwise readers
+ * switch to a new version atomically.
+ */
+@Service
+@Slf4j
+public class FxRateService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String pivot;
+    private final String file;
+    private final String defaultBaseCurrency;
+    private volatile FxRates rates;
+
+    public FxRateService(DataSource dataSource,
+                         @Value("${app.fx.pivot:EUR}") String pivot,
+                         @Value("${app.fx.file:}") String file,
+                         @Value("${app.fx.default-base-currency:EUR}") String defaultBaseCurrency) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.pivot = pivot;
+        this.file = file;
+        this.defaultBaseCurrency = defaultBaseCurrency;
+    }
+
+    public String getDefaultBaseCurrency() {
+        return defaultBaseCurrency;
+    }
+
+    public FxRates current() {
+        FxRates current = rates;
+        if (current == null) {
+            reload();
+            current = rates;
+        }
+        return current;
+    }
+
+    /**
+     * Rejects codes the rate table cannot convert, with 400.
+     */
+    public void requireKnown(String currency) {
+        if (currency == null || !current().knows(currency)) {
+            throw new ApiException("Unsupported currency: " + currency, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.fx.reload-ms:3600000}", initialDelayString = "${app.fx.reload-ms:3600000}")
+    public synchronized void reload() {
+        Map<String, FxRates.Series> loaded = file.isBlank() ? readTable() : readFile(Path.of(file));
+        FxRates previous = rates;
+        if (previous != null && previous.series().equals(loaded)) {
+            log.debug("Exchange rates unchanged, keeping version {}", previous.version());
+            return;
+        }
+        rates = new FxRates(previous != null ? previous.version() + 1 : 1, pivot, loaded);
+        log.info("Loaded exchange rates version {} for {} currencies from {}",
+                rates.version(), loaded.size(), file.isBlank() ? "fx_rate" : file);
+    }
+
+    private Map<String, FxRates.Series> readTable() {
+        Map<String, TreeMap<LocalDate, Double>> rows = new HashMap<>();
+        jdbcTemplate.query("select currency, rate_date, rate from fx_rate", resultSet -> {
+            add(rows, resultSet.getString(1), resultSet.getObject(2, LocalDate.class), resultSet.getDouble(3));
+        });
+        return toSeries(rows);
+    }
+
+    /**
+     * Reads {@code currency,date,rate} lines, e.g. {@code USD,2025-01-02,1.0353}, in any
+     * order. Blank lines, lines starting with {@code #} and a header line are skipped.
+     */
+    private Map<String, FxRates.Series> readFile(Path path) {
+        Map<String, TreeMap<LocalDate, Double>> rows = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            for (int lineNumber = 1; (line = reader.readLine()) != null; lineNumber++) {
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#") || (lineNumber == 1 && line.startsWith("currency"))) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                try {
+                    if (fields.length != 3) {
+                        throw new IllegalArgumentException("expected currency,date,rate");
+                    }
+                    add(rows, fields[0].strip(), LocalDate.parse(fields[1].strip()), Double.parseDouble(fields[2].strip()));
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                    throw new IllegalStateException("Invalid exchange rate on line " + lineNumber + " of " + path
+                            + ": " + e.getMessage(), e);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read exchange rates from " + path, e);
+        }
+        return toSeries(rows);
+    }
+
+    private void add(Map<String, TreeMap<LocalDate, Double>> rows, String currency, LocalDate day, double rate) {
+        if (currency.length() != 3 || !(rate > 0) || Double.isInfinite(rate)) {
+            throw new IllegalArgumentException("invalid rate " + rate + " for " + currency);
+        }
+        if (currency.equals(pivot)) {
+            return;
+        }
+        rows.computeIfAbsent(currency, key -> new TreeMap<>()).put(day, rate);
+    }
+
+    private static Map<String, FxRates.Series> toSeries(Map<String, TreeMap<LocalDate, Double>> rows) {
+        Map<String, FxRates.Series> series = new HashMap<>();
+        rows.forEach((currency, byDay) -> {
+            int[] days = new int[byDay.size()];
+            double[] values = new double[byDay.size()];
+            int i = 0;
+            for (Map.Entry<LocalDate, Double> entry : byDay.entrySet()) {
+                days[i] = (int) entry.getKey().toEpochDay();
+                values[i++] = entry.getValue();
+            }
+            series.put(currency, new FxRates.Series(days, values));
+        });
+        return series;
+    }
+}
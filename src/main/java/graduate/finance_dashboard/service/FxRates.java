@@ -0,0 +1,210 @@
+package graduate.finance_dashboard.service;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One immutable version of the exchange rate table. Each currency's rates are two parallel
+ * arrays sorted by day, {@code int} epoch days and {@code double} units per one unit of
+ * the pivot currency; the rate for a day is the latest one on or before it, found by
+ * binary search.
+ * <p>
+ * Converting from one currency to another goes through a {@link Factors} table built on
+ * first use: one factor per day over the span both currencies have rates for. Each
+ * (currency, day) is therefore computed once per version, and a conversion afterwards is
+ * an array read. A span of ten years costs about 30 KB per currency pair.
+ */
+public final class FxRates {
+
+    /**
+     * Rates of one currency, in ascending day order.
+     */
+    public record Series(int[] days, double[] rates) {
+
+        /** Index of the rate in effect on {@code day}, or -1 if the series starts later. */
+        int indexOn(int day) {
+            int index = Arrays.binarySearch(days, day);
+            return index >= 0 ? index : -index - 2;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Series series
+                    && Arrays.equals(days, series.days) && Arrays.equals(rates, series.rates);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(days) + Arrays.hashCode(rates);
+        }
+    }
+
+    /**
+     * Factors converting amounts from one currency to another, by day. Days after the
+     * last known rate use the last factor; days before the first one have none.
+     */
+    public static final class Factors {
+
+        private static final Factors IDENTITY = new Factors(Integer.MIN_VALUE, new double[]{1.0});
+
+        private final int firstDay;
+        private final double[] factors;
+
+        private Factors(int firstDay, double[] factors) {
+            this.firstDay = firstDay;
+            this.factors = factors;
+        }
+
+        /** The factor for {@code epochDay}, or {@code NaN} if no rate is known that early. */
+        public double on(long epochDay) {
+            if (epochDay < firstDay) {
+                return Double.NaN;
+            }
+            return factors[(int) Math.min(epochDay - firstDay, factors.length - 1)];
+        }
+
+        /**
+         * {@code minorUnits} converted at the factor of {@code epochDay}, rounded half up.
+         *
+         * @throws IllegalStateException if there is no rate for that day
+         */
+        public long convert(long minorUnits, long epochDay) {
+            double factor = on(epochDay);
+            if (Double.isNaN(factor)) {
+                throw new IllegalStateException("No exchange rate on " + LocalDate.ofEpochDay(epochDay));
+            }
+            return factor == 1.0 ? minorUnits : roundHalfUp(minorUnits * factor);
+        }
+
+        /**
+         * {@code minorUnits} converted at the mean factor of the days from {@code firstDay} to
+         * {@code lastDay} inclusive that have one, for totals that only know their month.
+         *
+         * @throws IllegalStateException if none of those days has a rate
+         */
+        public long convertAveraged(long minorUnits, long firstDay, long lastDay) {
+            long from = Math.max(firstDay, this.firstDay);
+            if (from > lastDay) {
+                throw new IllegalStateException("No exchange rate on " + LocalDate.ofEpochDay(lastDay));
+            }
+            double sum = 0;
+            for (long day = from; day <= lastDay; day++) {
+                sum += on(day);
+            }
+            double factor = sum / (lastDay - from + 1);
+            return factor == 1.0 ? minorUnits : roundHalfUp(minorUnits * factor);
+        }
+
+        private static long roundHalfUp(double value) {
+            double rounded = Math.floor(Math.abs(value) + 0.5);
+            if (rounded >= 0x1p63) {
+                throw new ArithmeticException("Converted amount out of range");
+            }
+            return value < 0 ? -(long) rounded : (long) rounded;
+        }
+    }
+
+    private final long version;
+    private final String pivot;
+    private final Map<String, Series> series;
+    private final Map<String, Factors> factors = new ConcurrentHashMap<>();
+
+    public FxRates(long version, String pivot, Map<String, Series> series) {
+        this.version = version;
+        this.pivot = pivot;
+        this.series = Map.copyOf(series);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public String pivot() {
+        return pivot;
+    }
+
+    Map<String, Series> series() {
+        return series;
+    }
+
+    public boolean knows(String currency) {
+        return pivot.equals(currency) || series.containsKey(currency);
+    }
+
+    /**
+     * Units of {@code currency} per unit of the pivot currency on {@code day}.
+     *
+     * @throws IllegalStateException if the currency has no rate on or before that day
+     */
+    public double rate(String currency, LocalDate day) {
+        if (pivot.equals(currency)) {
+            return 1.0;
+        }
+        Series rates = requireSeries(currency);
+        int index = rates.indexOn((int) day.toEpochDay());
+        if (index < 0) {
+            throw new IllegalStateException("No " + currency + " exchange rate on " + day);
+        }
+        return rates.rates()[index];
+    }
+
+    /**
+     * Factors converting {@code from} into {@code to}, built on first use.
+     *
+     * @throws IllegalStateException if either currency has no rates at all
+     */
+    public Factors factors(String from, String to) {
+        if (from.equals(to)) {
+            return Factors.IDENTITY;
+        }
+        return factors.computeIfAbsent(from + ">" + to, key -> build(from, to));
+    }
+
+    private Factors build(String from, String to) {
+        Series source = pivot.equals(from) ? null : requireSeries(from);
+        Series target = pivot.equals(to) ? null : requireSeries(to);
+        int firstDay = Math.max(firstDay(source), firstDay(target));
+        int lastDay = Math.max(lastDay(source), lastDay(target));
+        double[] values = new double[Math.max(lastDay, firstDay) - firstDay + 1];
+        int sourceIndex = source != null ? source.indexOn(firstDay) : -1;
+        int targetIndex = target != null ? target.indexOn(firstDay) : -1;
+        for (int i = 0; i < values.length; i++) {
+            int day = firstDay + i;
+            // Both series are walked forward in step with the day instead of searched again.
+            sourceIndex = advance(source, sourceIndex, day);
+            targetIndex = advance(target, targetIndex, day);
+            double sourceRate = source != null ? source.rates()[sourceIndex] : 1.0;
+            double targetRate = target != null ? target.rates()[targetIndex] : 1.0;
+            values[i] = targetRate / sourceRate;
+        }
+        return new Factors(firstDay, values);
+    }
+
+    private static int advance(Series series, int index, int day) {
+        if (series == null) {
+            return index;
+        }
+        while (index + 1 < series.days().length && series.days()[index + 1] <= day) {
+            index++;
+        }
+        return index;
+    }
+
+    private static int firstDay(Series series) {
+        return series != null ? series.days()[0] : Integer.MIN_VALUE;
+    }
+
+    private static int lastDay(Series series) {
+        return series != null ? series.days()[series.days().length - 1] : Integer.MIN_VALUE;
+    }
+
+    private Series requireSeries(String currency) {
+        Series rates = series.get(currency);
+        if (rates == null) {
+            throw new IllegalStateException("No exchange rates for " + currency);
+        }
+        return rates;
+    }
+}
@@ -0,0 +1,277 @@
+package graduate.finance_dashboard.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import graduate.finance_dashboard.model.Category;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the in-process caches of several nodes behind a load balancer in step. Committed
+ * changes are queued as {@link InvalidationMessage} entries and sent as one batch every
+ * {@code flush-ms}, so a burst of writes by one user costs one entry.
+ * <p>
+ * Received expense and category entries are replayed as the same
+ * {@link ExpenseChangedEvent} and {@link CategoryChangedEvent} a local write publishes
+ * after commit, so version stamps, cached category ids, event streams and replica
+ * stickiness follow writes on other nodes exactly as they follow local ones. Category and
+ * principal entries evict from the second-level and principal caches.
+ * <p>
+ * Each node numbers its batches. A receiver that finds a number skipped, or a heartbeat
+ * ahead of the last batch it got, has lost invalidations it cannot reconstruct and empties
+ * all of its caches instead; so does one whose transport had to reconnect.
+ * <p>
+ * With no {@link InvalidationTransport} configured the bus does nothing.
+ */
+@Component
+@Slf4j
+public class InvalidationBus implements InvalidationTransport.Receiver, MeterBinder {
+
+    // Roughly the header; payloads must stay below PostgreSQL's 8000 byte NOTIFY limit.
+    private static final int HEADER_BYTES = 32;
+    private static final ThreadLocal<Boolean> REPLAYING = new ThreadLocal<>();
+
+    private final String node = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final InvalidationTransport transport;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CollectionVersions collectionVersions;
+    private final UserCategoryIds userCategoryIds;
+    private final UserPrincipalCache userPrincipalCache;
+    private final EntityManagerFactory entityManagerFactory;
+    private final int maxPayloadBytes;
+    private final long heartbeatNanos;
+
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final Cache<String, Long> lastSeqByNode = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private long seq;
+    private long lastSentAt = System.nanoTime();
+    private Counter sent;
+    private Counter received;
+    private Counter resyncs;
+
+    public InvalidationBus(ObjectProvider<InvalidationTransport> transport,
+                           ApplicationEventPublisher eventPublisher,
+                           CollectionVersions collectionVersions,
+                           UserCategoryIds userCategoryIds,
+                           UserPrincipalCache userPrincipalCache,
+                           EntityManagerFactory entityManagerFactory,
+                           @Value("${app.invalidation.max-payload-bytes:7900}") int maxPayloadBytes,
+                           @Value("${app.invalidation.heartbeat:5s}") Duration heartbeat) {
+        this.transport = transport.getIfAvailable();
+        this.eventPublisher = eventPublisher;
+        this.collectionVersions = collectionVersions;
+        this.userCategoryIds = userCategoryIds;
+        this.userPrincipalCache = userPrincipalCache;
+        this.entityManagerFactory = entityManagerFactory;
+        this.maxPayloadBytes = maxPayloadBytes;
+        this.heartbeatNanos = heartbeat.toNanos();
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onExpenseChanged(ExpenseChangedEvent event) {
+        queue(InvalidationMessage.expenses(event.userId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onCategoryChanged(CategoryChangedEvent event) {
+        queue(InvalidationMessage.categories(event.userId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onCacheInvalidation(CacheInvalidationEvent event) {
+        queue(event.entry());
+    }
+
+    private void queue(String entry) {
+        if (transport != null && REPLAYING.get() == null) {
+            pending.add(entry);
+        }
+    }
+
+    /**
+     * Sends what was queued since the last flush, split into batches that fit a payload,
+     * or a heartbeat when nothing was sent for a while.
+     */
+    @Scheduled(fixedDelayString = "${app.invalidation.flush-ms:50}")
+    public synchronized void flush() {
+        if (transport == null) {
+            return;
+        }
+        List<String> entries = drainPending();
+        if (entries.isEmpty()) {
+            if (System.nanoTime() - lastSentAt >= heartbeatNanos) {
+                send(new InvalidationMessage(node, seq, Set.of()));
+            }
+            return;
+        }
+
+        Set<String> batch = new LinkedHashSet<>();
+        int size = HEADER_BYTES;
+        for (String entry : entries) {
+            int bytes = entry.getBytes(StandardCharsets.UTF_8).length + 1;
+            if (!batch.isEmpty() && size + bytes > maxPayloadBytes) {
+                send(new InvalidationMessage(node, ++seq, batch));
+                batch = new LinkedHashSet<>();
+                size = HEADER_BYTES;
+            }
+            batch.add(entry);
+            size += bytes;
+        }
+        send(new InvalidationMessage(node, ++seq, batch));
+    }
+
+    private List<String> drainPending() {
+        List<String> entries = new ArrayList<>();
+        for (Iterator<String> it = pending.iterator(); it.hasNext(); ) {
+            entries.add(it.next());
+            it.remove();
+        }
+        return entries;
+    }
+
+    private void send(InvalidationMessage message) {
+        lastSentAt = System.nanoTime();
+        try {
+            transport.send(message.encode());
+            if (sent != null) {
+                sent.increment();
+            }
+        } catch (RuntimeException e) {
+            // The sequence number is spent, so the other nodes resync on our next batch.
+            log.warn("Failed to send cache invalidations {}", message.seq(), e);
+        }
+    }
+
+    @Override
+    public void receive(String payload) {
+        InvalidationMessage message;
+        try {
+            message = InvalidationMessage.decode(payload);
+        } catch (IllegalArgumentException e) {
+            log.warn("Dropping malformed cache invalidation: {}", payload);
+            resync();
+            return;
+        }
+        if (node.equals(message.node())) {
+            return;
+        }
+        if (received != null) {
+            received.increment();
+        }
+
+        Long last = lastSeqByNode.asMap().put(message.node(), message.seq());
+        if (last != null && message.seq() != (message.isHeartbeat() ? last : last + 1)) {
+            log.warn("Missed cache invalidations from node {}: expected {} after {}, got {}",
+                    message.node(), message.isHeartbeat() ? "heartbeat" : "batch", last, message.seq());
+            resync();
+        }
+        apply(message.entries());
+    }
+
+    private void apply(Set<String> entries) {
+        REPLAYING.set(Boolean.TRUE);
+        try {
+            for (String entry : entries) {
+                if (entry.length() < 3 || entry.charAt(1) != ':') {
+                    log.debug("Ignoring malformed cache invalidation: {}", entry);
+                    continue;
+                }
+                String key = entry.substring(2);
+                switch (entry.charAt(0)) {
+                    case 'E' -> eventPublisher.publishEvent(new ExpenseChangedEvent(Long.valueOf(key)));
+                    case 'C' -> eventPublisher.publishEvent(new CategoryChangedEvent(Long.valueOf(key)));
+                    case 'c' -> evictCategory(key);
+                    case 'P' -> userPrincipalCache.invalidate(key);
+                    default -> log.debug("Ignoring unknown cache invalidation: {}", entry);
+                }
+            }
+        } finally {
+            REPLAYING.remove();
+        }
+    }
+
+    private void evictCategory(String key) {
+        if (InvalidationMessage.ALL.equals(key)) {
+            entityManagerFactory.getCache().evict(Category.class);
+        } else {
+            entityManagerFactory.getCache().evict(Category.class, Long.valueOf(key));
+        }
+    }
+
+    /**
+     * Empties every cache this node could hold stale data in. Version stamps start over,
+     * so clients revalidate everything once.
+     */
+    @Override
+    public void resync() {
+        log.info("Flushing all local caches");
+        collectionVersions.invalidateAll();
+        userCategoryIds.invalidateAll();
+        userPrincipalCache.invalidateAll();
+        entityManagerFactory.getCache().evictAll();
+        if (resyncs != null) {
+            resyncs.increment();
+        }
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    void start() {
+        if (transport != null && started.compareAndSet(false, true)) {
+            log.info("Exchanging cache invalidations as node {}", node);
+            transport.start(this);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (transport != null && started.get()) {
+            flush();
+            transport.close();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        sent = Counter.builder("cache.invalidation.batches")
+                .description("Invalidation batches exchanged with other nodes")
+                .tag("direction", "sent")
+                .register(registry);
+        received = Counter.builder("cache.invalidation.batches")
+                .description("Invalidation batches exchanged with other nodes")
+                .tag("direction", "received")
+                .register(registry);
+        resyncs = Counter.builder("cache.invalidation.resyncs")
+                .description("Local caches flushed because invalidations from other nodes were lost")
+                .register(registry);
+    }
+}
@@ -0,0 +1,66 @@
+package graduate.finance_dashboard.service;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * One batch of cache invalidations from one node, in the compact text form that goes over
+ * an {@link InvalidationTransport}: a header line with the sender's node id and sequence
+ * number, then one line per entry. A batch without entries is a heartbeat, which repeats
+ * the last sequence number so that receivers notice when the last batch went missing.
+ * <p>
+ * Entries are a kind and a key:
+ * <ul>
+ *     <li>{@code E:<userId>}: the user's expenses changed</li>
+ *     <li>{@code C:<userId>}: the user's categories changed</li>
+ *     <li>{@code c:<categoryId>}: that category changed or was deleted; {@code c:*} for all</li>
+ *     <li>{@code P:<email>}: the user with that email changed or was deleted</li>
+ * </ul>
+ */
+public record InvalidationMessage(String node, long seq, Set<String> entries) {
+
+    public static final String ALL = "*";
+
+    public static String expenses(Long userId) {
+        return "E:" + userId;
+    }
+
+    public static String categories(Long userId) {
+        return "C:" + userId;
+    }
+
+    public static String category(Long categoryId) {
+        return "c:" + categoryId;
+    }
+
+    public static String allCategories() {
+        return "c:" + ALL;
+    }
+
+    public static String principal(String email) {
+        return "P:" + email;
+    }
+
+    public boolean isHeartbeat() {
+        return entries.isEmpty();
+    }
+
+    public String encode() {
+        StringBuilder payload = new StringBuilder(node).append(' ').append(seq);
+        for (String entry : entries) {
+            payload.append('\n').append(entry);
+        }
+        return payload.toString();
+    }
+
+    public static InvalidationMessage decode(String payload) {
+        String[] lines = payload.split("\n");
+        String[] header = lines[0].split(" ");
+        if (header.length != 2) {
+            throw new IllegalArgumentException("Malformed invalidation header: " + lines[0]);
+        }
+        Set<String> entries = new LinkedHashSet<>(Arrays.asList(lines).subList(1, lines.length));
+        return new InvalidationMessage(header[0], Long.parseLong(header[1]), entries);
+    }
+}
@@ -0,0 +1,28 @@
+package graduate.finance_dashboard.service;
+
+/**
+ * Carries {@link InvalidationMessage payloads} between the nodes of a deployment. Every
+ * node receives what any node sends, its own messages included. Delivery may be lost,
+ * but not reordered between one sender and one receiver.
+ */
+public interface InvalidationTransport {
+
+    void send(String payload);
+
+    /**
+     * Starts delivering messages to {@code receiver}, until {@link #close()}.
+     */
+    void start(Receiver receiver);
+
+    void close();
+
+    interface Receiver {
+
+        void receive(String payload);
+
+        /**
+         * Messages may have been lost, e.g. while the transport was reconnecting.
+         */
+        void resync();
+    }
+}
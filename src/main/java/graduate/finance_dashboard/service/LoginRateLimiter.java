@@ -0,0 +1,77 @@
+package graduate.finance_dashboard.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graduate.finance_dashboard.exception.ApiException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Token buckets limiting how often one email address and one client address may ask for
+ * password work. Checked before any hashing is queued, so a rejected attempt costs no
+ * CPU. Buckets are kept in bounded caches and dropped once they would be full again.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private static final Duration PERIOD = Duration.ofMinutes(1);
+
+    private final Cache<String, TokenBucket> emailBuckets;
+    private final Cache<String, TokenBucket> clientBuckets;
+    private final int perEmail;
+    private final int perClient;
+
+    public LoginRateLimiter(@Value("${app.security.rate-limit.per-email-per-minute:10}") int perEmail,
+                            @Value("${app.security.rate-limit.per-client-per-minute:60}") int perClient,
+                            @Value("${app.security.rate-limit.max-tracked:100000}") long maxTracked) {
+        this.perEmail = perEmail;
+        this.perClient = perClient;
+        this.emailBuckets = Caffeine.newBuilder().maximumSize(maxTracked).expireAfterAccess(PERIOD).build();
+        this.clientBuckets = Caffeine.newBuilder().maximumSize(maxTracked).expireAfterAccess(PERIOD).build();
+    }
+
+    /**
+     * Takes one token from the caller's buckets, or throws 429 if either is empty.
+     * {@code email} may be null for requests that are limited per client only.
+     */
+    public void acquire(String email, String clientAddress) {
+        if (clientAddress != null && !clientBuckets.get(clientAddress, key -> new TokenBucket(perClient)).tryConsume()) {
+            throw tooManyRequests();
+        }
+        if (email != null && !emailBuckets.get(email.toLowerCase(Locale.ROOT), key -> new TokenBucket(perEmail)).tryConsume()) {
+            throw tooManyRequests();
+        }
+    }
+
+    private static ApiException tooManyRequests() {
+        return new ApiException("Too many attempts, please try again later", HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    private static final class TokenBucket {
+        private final int capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        TokenBucket(int capacity) {
+            this.capacity = capacity;
+            this.tokensPerNano = (double) capacity / PERIOD.toNanos();
+            this.tokens = capacity;
+        }
+
+        synchronized boolean tryConsume() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package graduate.finance_dashboard.service;
+
+import graduate.finance_dashboard.dto.AuthenticatedUser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Issues and verifies stateless session tokens of the form
+ * {@code base64url(userId|expiresAt).base64url(HMAC-SHA256)}. Verification needs only the
+ * locally held key, so authenticating a request never touches the database.
+ * <p>
+ * When no secret is configured outside the {@code prod} profile a random one is generated,
+ * which means tokens stop being valid on restart and are not accepted by other instances.
+ * Under {@code prod} a missing secret fails startup instead.
+ */
+@Service
+@Slf4j
+public class SessionTokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Mac prototype;
+    private final Duration ttl;
+    private final Clock clock;
+
+    @Autowired
+    public SessionTokenService(@Value("${app.security.token.secret:}") String secret,
+                               @Value("${app.security.token.ttl:12h}") Duration ttl,
+                               Environment environment) {
+        this(secret, !environment.acceptsProfiles(Profiles.of("prod")), ttl, Clock.systemUTC());
+    }
+
+    SessionTokenService(String secret, Duration ttl, Clock clock) {
+        this(secret, true, ttl, clock);
+    }
+
+    SessionTokenService(String secret, boolean randomKeyAllowed, Duration ttl, Clock clock) {
+        this.prototype = createMac(key(secret, randomKeyAllowed));
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    public record IssuedToken(String token, Instant expiresAt) {
+    }
+
+    public IssuedToken issue(Long userId) {
+        Instant expiresAt = clock.instant().plus(ttl);
+        String payload = ENCODER.encodeToString(
+                (userId + "|" + expiresAt.getEpochSecond()).getBytes(StandardCharsets.UTF_8));
+        return new IssuedToken(payload + "." + ENCODER.encodeToString(sign(payload)), expiresAt);
+    }
+
+    /**
+     * Returns the user a token was issued to, or empty if it is malformed, was not signed
+     * with our key, or has expired.
+     */
+    public Optional<AuthenticatedUser> verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) {
+            return Optional.empty();
+        }
+
+        String payload = token.substring(0, dot);
+        try {
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, sign(payload))) {
+                return Optional.empty();
+            }
+
+            String[] fields = new String(DECODER.decode(payload), StandardCharsets.UTF_8).split("\\|");
+            if (fields.length != 2 || clock.instant().getEpochSecond() >= Long.parseLong(fields[1])) {
+                return Optional.empty();
+            }
+            return Optional.of(new AuthenticatedUser(Long.parseLong(fields[0])));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(String payload) {
+        try {
+            Mac mac = (Mac) prototype.clone();
+            return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] key(String secret, boolean randomKeyAllowed) {
+        if (secret == null || secret.isBlank()) {
+            if (!randomKeyAllowed) {
+                throw new IllegalStateException("app.security.token.secret (SESSION_TOKEN_SECRET) must be set in production");
+            }
+            log.warn("No app.security.token.secret configured; using a random key, sessions will not survive a restart");
+            byte[] key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            return key;
+        }
+        byte[] key = Base64.getDecoder().decode(secret.trim());
+        if (key.length < 32) {
+            throw new IllegalStateException("app.security.token.secret must be at least 256 bits, base64 encoded");
+        }
+        return key;
+    }
+
+    private static Mac createMac(byte[] key) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(key, ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package graduate.finance_dashboard.service;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.configuration.FactoryBuilder;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * The ids of each user's categories, so a category list is assembled from the entity
+ * cache without a query. This is what Hibernate's query cache would hold, but the query
+ * cache drops every result that reads a table as soon as any row of it changes; here a
+ * write invalidates only the entries of the user who made it.
+ * <p>
+ * Entries carry the {@link CollectionVersions} stamp that was current before the ids were
+ * read and are used only while it still is, so a list read concurrently with a write is
+ * never served once the write has committed. The region is bounded by the total number of
+ * ids it holds.
+ */
+@Component
+public class UserCategoryIds implements MeterBinder {
+
+    public static final String REGION = "category-ids";
+
+    public record Entry(long stamp, List<Long> ids) {
+    }
+
+    private final Cache<Long, Entry> cache;
+
+    public UserCategoryIds(CacheManager secondLevelCacheManager,
+                           @Value("${app.category-cache.max-ids:1000000}") long maxIds,
+                           @Value("${app.category-cache.ttl:1h}") Duration ttl) {
+        Weigher<Long, Entry> weigher = (userId, entry) -> 1 + entry.ids().size();
+        this.cache = secondLevelCacheManager.createCache(REGION, new CaffeineConfiguration<Long, Entry>()
+                .setTypes(Long.class, Entry.class)
+                .setStoreByValue(false)
+                .setNativeStatisticsEnabled(true)
+                .setExpireAfterWrite(OptionalLong.of(ttl.toNanos()))
+                .setMaximumWeight(OptionalLong.of(maxIds))
+                .setWeigherFactory(Optional.of(new FactoryBuilder.SingletonFactory<>(weigher))));
+    }
+
+    /**
+     * The user's category ids as of {@code stamp}, or null when they are not cached.
+     */
+    public List<Long> get(Long userId, long stamp) {
+        Entry entry = cache.get(userId);
+        return entry != null && entry.stamp() == stamp ? entry.ids() : null;
+    }
+
+    public void put(Long userId, long stamp, List<Long> ids) {
+        cache.put(userId, new Entry(stamp, List.copyOf(ids)));
+    }
+
+    public void invalidateAll() {
+        cache.removeAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onCategoryChanged(CategoryChangedEvent event) {
+        cache.remove(event.userId());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class), REGION);
+    }
+}
@@ -0,0 +1,52 @@
+package graduate.finance_dashboard.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graduate.finance_dashboard.dto.UserPrincipal;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded, expiring map from email to {@link UserPrincipal}. Resolving the caller is the
+ * first thing every API request does, so a hit here saves a database round trip per call.
+ * Unknown emails are not cached, so a freshly registered user is visible immediately.
+ */
+@Component
+public class UserPrincipalCache implements MeterBinder {
+
+    private final Cache<String, UserPrincipal> cache;
+
+    public UserPrincipalCache(@Value("${app.identity-cache.max-size:10000}") long maxSize,
+                              @Value("${app.identity-cache.ttl:5m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public UserPrincipal get(String email, Function<String, UserPrincipal> loader) {
+        return cache.get(email, loader);
+    }
+
+    public void invalidate(String email) {
+        if (email != null) {
+            cache.invalidate(email);
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "userPrincipals");
+    }
+}
@@ -0,0 +1,27 @@
+package graduate.finance_dashboard.service;
+
+import graduate.finance_dashboard.model.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops cached principals whenever a user row changes, whichever code path changed it,
+ * here and, once the change commits, on the other nodes.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserPrincipalCacheListener {
+
+    private final UserPrincipalCache userPrincipalCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(User user) {
+        userPrincipalCache.invalidate(user.getEmail());
+        eventPublisher.publishEvent(new CacheInvalidationEvent(InvalidationMessage.principal(user.getEmail())));
+    }
+}
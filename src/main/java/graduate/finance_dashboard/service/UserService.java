@@ -3,38 +3,115 @@ package graduate.finance_dashboard.service;
 import graduate.finance_dashboard.config.EmailValidator;
 import graduate.finance_dashboard.dto.LoginRequest;
 import graduate.finance_dashboard.dto.RegistrationRequest;
+import graduate.finance_dashboard.dto.UserPrincipal;
 import graduate.finance_dashboard.exception.ApiException;
 import graduate.finance_dashboard.model.User;
+import graduate.finance_dashboard.repository.CategoryRepository;
+import graduate.finance_dashboard.repository.ExpenseRepository;
 import graduate.finance_dashboard.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class UserService {
 
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder bCryptPasswordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final LoginRateLimiter loginRateLimiter;
     private final EmailValidator emailValidator;
+    private final UserPrincipalCache userPrincipalCache;
+    private final ExpenseRepository expenseRepository;
+    private final CategoryRepository categoryRepository;
+    private final ExpenseRollupService expenseRollupService;
+    private final ChangeLogService changeLogService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FxRateService fxRateService;
 
     public User getUserByEmail(String email) {
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new ApiException("User not found with provided email", HttpStatus.NOT_FOUND));
     }
 
-    public User login(LoginRequest loginRequest) {
+    public UserPrincipal getPrincipalByEmail(String email) {
+        UserPrincipal principal = userPrincipalCache.get(email,
+                key -> userRepository.findPrincipalByEmail(key).orElse(null));
+        if (principal == null) {
+            throw new ApiException("User not found with provided email", HttpStatus.NOT_FOUND);
+        }
+        return principal;
+    }
+
+    /**
+     * Resolves an authenticated caller to an uninitialized {@link User} reference. Only its
+     * id is known, which is all the services need to scope queries and check ownership, so
+     * no user row is read.
+     */
+    public User getUserReference(Long id) {
+        return userRepository.getReferenceById(id);
+    }
+
+    /**
+     * The currency the user's summaries are converted into.
+     */
+    public String getBaseCurrency(Long userId) {
+        return userRepository.findBaseCurrencyById(userId).orElseGet(fxRateService::getDefaultBaseCurrency);
+    }
+
+    /**
+     * Changes the user's base currency. Expenses and rollup rows without a currency were in
+     * the old base currency, so they are given it explicitly first; from then on they are
+     * converted like any other foreign amount.
+     */
+    @Transactional
+    public String setBaseCurrency(Long userId, String currency) {
+        fxRateService.requireKnown(currency);
+        changeLogService.lockUser(userId);
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ApiException("Account no longer exists", HttpStatus.UNAUTHORIZED));
+        String previous = user.getBaseCurrency() != null ? user.getBaseCurrency() : fxRateService.getDefaultBaseCurrency();
+        if (previous.equals(currency)) {
+            return currency;
+        }
+
+        // Flushed by the bulk update below, which then clears the persistence context.
+        user.setBaseCurrency(currency);
+        changeLogService.recordCurrencyAssigned(userId);
+        int assigned = expenseRepository.assignCurrency(userId, previous);
+        expenseRollupService.assignCurrency(userId, previous);
+        eventPublisher.publishEvent(new ExpenseChangedEvent(userId));
+        log.info("Changed base currency of user {} from {} to {}, {} expenses kept in {}",
+                userId, previous, currency, assigned, previous);
+        return currency;
+    }
+
+    /**
+     * Verifies the password off the request thread and, when the stored hash was made with
+     * a lower cost factor than the configured one, replaces it with a fresh hash while the
+     * plain password is at hand.
+     */
+    public User login(LoginRequest loginRequest, String clientAddress) {
+        loginRateLimiter.acquire(loginRequest.getEmail(), clientAddress);
         User user = getUserByEmail(loginRequest.getEmail());
-        if (!bCryptPasswordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(loginRequest.getPassword(), user.getPassword())) {
             throw new ApiException("Invalid email or password", HttpStatus.UNAUTHORIZED);
         }
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            user.setPassword(passwordHashingService.hash(loginRequest.getPassword()));
+            user = userRepository.save(user);
+        }
         return user;
     }
 
-    public String register(RegistrationRequest request) {
+    public String register(RegistrationRequest request, String clientAddress) {
+        loginRateLimiter.acquire(null, clientAddress);
         if (!emailValidator.test(request.getEmail())) {
             throw new ApiException("Invalid email format", HttpStatus.BAD_REQUEST);
         }
@@ -48,12 +125,40 @@ public class UserService {
             request.getFirstName(),
             request.getLastName(),
             request.getEmail(), 
-            bCryptPasswordEncoder.encode(request.getPassword()),
+            passwordHashingService.hash(request.getPassword()),
             request.getEmail(),
             LocalDateTime.now()
         );
 
         userRepository.save(user);
+        userPrincipalCache.invalidate(user.getEmail());
+        eventPublisher.publishEvent(new CacheInvalidationEvent(InvalidationMessage.principal(user.getEmail())));
         return "Registration successful! You can now log in.";
     }
+
+    /**
+     * Deletes the user and everything they own with one bulk statement per table, children
+     * first. The user's row lock is taken first, so no write of theirs can interleave.
+     */
+    @Transactional
+    public void deleteAccount(Long userId) {
+        changeLogService.lockUser(userId);
+        String email = userRepository.findById(userId).map(User::getEmail).orElse(null);
+
+        changeLogService.removeUser(userId);
+        expenseRollupService.removeUser(userId);
+        int expenses = expenseRepository.deleteByUserId(userId);
+        int categories = categoryRepository.deleteByUserId(userId);
+        userRepository.deleteInBulkById(userId);
+
+        userPrincipalCache.invalidate(email);
+        if (email != null) {
+            eventPublisher.publishEvent(new CacheInvalidationEvent(InvalidationMessage.principal(email)));
+        }
+        // The bulk delete evicted all categories from this node's second-level cache.
+        eventPublisher.publishEvent(new CacheInvalidationEvent(InvalidationMessage.allCategories()));
+        eventPublisher.publishEvent(new ExpenseChangedEvent(userId));
+        eventPublisher.publishEvent(new CategoryChangedEvent(userId));
+        log.info("Deleted account {} with {} expenses and {} categories", userId, expenses, categories);
+    }
 }
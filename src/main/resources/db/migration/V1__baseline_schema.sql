@@ -0,0 +1,46 @@
+-- Schema as previously generated by hibernate.ddl-auto=update. Every statement is
+-- idempotent so that databases created that way can be migrated in place.
+
+create sequence if not exists user_seq start with 1 increment by 1;
+
+create table if not exists users (
+    user_id    bigint       not null primary key,
+    first_name varchar(255),
+    last_name  varchar(255),
+    username   varchar(255),
+    password   varchar(255),
+    email      varchar(255),
+    created_at timestamp(6),
+    updated_at timestamp(6)
+);
+
+create table if not exists category (
+    id         bigint generated by default as identity primary key,
+    name       varchar(255),
+    user_id    bigint       not null references users (user_id),
+    created_at timestamp(6),
+    updated_at timestamp(6)
+);
+
+create table if not exists expense (
+    id          bigint generated by default as identity primary key,
+    amount      numeric(38, 2) not null,
+    description varchar(255),
+    category_id bigint         not null references category (id),
+    user_id     bigint         not null references users (user_id),
+    created_at  timestamp(6),
+    updated_at  timestamp(6),
+    version     bigint default 0 not null
+);
+
+alter table expense add column if not exists version bigint default 0 not null;
+
+create table if not exists expense_rollup (
+    id            bigint generated by default as identity primary key,
+    user_id       bigint         not null,
+    category_id   bigint         not null,
+    month_start   date           not null,
+    total         numeric(38, 2) not null,
+    expense_count bigint         not null,
+    constraint uq_expense_rollup_user_category_month unique (user_id, category_id, month_start)
+);
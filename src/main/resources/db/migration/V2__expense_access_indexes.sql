@@ -0,0 +1,12 @@
+-- Listing, paging and exporting a user's expenses: user_id equality, then
+-- (created_at, id) order for keyset pagination and date ranges.
+create index if not exists idx_expense_user_created_id on expense (user_id, created_at, id);
+
+-- Category-filtered reads and summaries, optionally within a date range.
+create index if not exists idx_expense_user_category_created on expense (user_id, category_id, created_at);
+
+-- Resolving the caller by email on every request; registration relies on uniqueness.
+create unique index if not exists uq_users_email on users (email);
+
+-- Category name lookups and the one-name-per-user rule.
+create unique index if not exists uq_category_user_name on category (user_id, name);
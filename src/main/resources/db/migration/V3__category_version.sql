@@ -0,0 +1,2 @@
+-- Optimistic-locking version for categories, also used as their ETag.
+alter table category add column if not exists version bigint default 0 not null;
@@ -0,0 +1,27 @@
+-- Per-user change feed for delta sync. Entries for one user are written while holding
+-- that user's row lock, so within a user seq order is also commit order.
+create table if not exists change_log (
+    seq         bigint generated by default as identity primary key,
+    user_id     bigint      not null references users (user_id),
+    entity_type varchar(16) not null,
+    entity_id   bigint      not null,
+    operation   varchar(8)  not null,
+    changed_at  timestamp(6) not null
+);
+
+-- Reading a user's changes after a position, and skipping entries superseded by a later
+-- change to the same entity.
+create index if not exists idx_change_log_user_seq on change_log (user_id, seq);
+create index if not exists idx_change_log_user_entity_seq on change_log (user_id, entity_type, entity_id, seq);
+
+-- Categories and expenses that existed before the feed, so that since=0 still returns
+-- everything: one upsert each, per user categories first, then expenses, by id.
+insert into change_log (user_id, entity_type, entity_id, operation, changed_at)
+select existing.user_id, existing.entity_type, existing.entity_id, 'UPSERT', localtimestamp
+from (
+    select user_id, 'CATEGORY' as entity_type, id as entity_id, 0 as type_order from category
+    union all
+    select user_id, 'EXPENSE', id, 1 from expense
+) existing
+where not exists (select 1 from change_log)
+order by existing.user_id, existing.type_order, existing.entity_id;
@@ -0,0 +1,14 @@
+-- Currencies. An expense without one, like every expense recorded before this
+-- migration, is in its owner's base currency; a user without a base currency uses the
+-- configured default.
+alter table expense add column if not exists currency varchar(3);
+alter table users add column if not exists base_currency varchar(3);
+
+-- Exchange rates as units of a currency per one unit of the pivot currency
+-- (app.fx.pivot), effective from rate_date until the currency's next rate.
+create table if not exists fx_rate (
+    currency  varchar(3)      not null,
+    rate_date date            not null,
+    rate      numeric(24, 10) not null,
+    primary key (currency, rate_date)
+);
@@ -0,0 +1,14 @@
+-- Rollup rows per currency, so that expenses with a currency are rolled up too. A null
+-- currency is the owner's base currency, like on expense.
+alter table expense_rollup add column if not exists currency varchar(3);
+alter table expense_rollup drop constraint if exists uq_expense_rollup_user_category_month;
+alter table expense_rollup add constraint uq_expense_rollup_user_category_month_currency
+    unique (user_id, category_id, month_start, currency);
+
+-- Until now only expenses without a currency were rolled up, and a change of base
+-- currency dropped a user's rows; recompute them all.
+delete from expense_rollup;
+insert into expense_rollup (user_id, category_id, month_start, currency, total, expense_count)
+select user_id, category_id, cast(date_trunc('month', created_at) as date), currency, sum(amount), count(*)
+from expense
+group by user_id, category_id, cast(date_trunc('month', created_at) as date), currency;
@@ -0,0 +1,27 @@
+package graduate.finance_dashboard;
+
+import graduate.finance_dashboard.model.User;
+import graduate.finance_dashboard.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Saves users for tests. Each gets a fresh email, so tests sharing the in-memory database
+ * never see each other's data.
+ */
+public final class TestUsers {
+
+    private TestUsers() {
+    }
+
+    /** A new user whose stored password hash matches no login. */
+    public static User create(UserRepository userRepository) {
+        return create(userRepository, "secret");
+    }
+
+    public static User create(UserRepository userRepository, String passwordHash) {
+        String email = UUID.randomUUID() + "@example.com";
+        return userRepository.save(new User("Jan", "Kowalski", email, passwordHash, email, LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,61 @@
+package graduate.finance_dashboard.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdmissionControlledDataSourceTests {
+
+    private final AdmissionControlledDataSource dataSource = new AdmissionControlledDataSource(
+            new DriverManagerDataSource("jdbc:h2:mem:admission"), 1, Duration.ofMillis(200));
+
+    @Test
+    void callerWaitsUntilAConnectionIsClosed() throws Exception {
+        Connection first = dataSource.getConnection();
+
+        CompletableFuture<Connection> second = CompletableFuture.supplyAsync(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (dataSource.getQueueLength() == 0) {
+            Thread.onSpinWait();
+        }
+
+        first.close();
+        try (Connection connection = second.get(1, TimeUnit.SECONDS)) {
+            assertThat(connection.isValid(1)).isTrue();
+            assertThat(dataSource.getQueueLength()).isZero();
+        }
+        assertThat(dataSource.getActivePermits()).isZero();
+    }
+
+    @Test
+    void timesOutWhenNoPermitIsReturned() throws Exception {
+        try (Connection ignored = dataSource.getConnection()) {
+            assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        }
+    }
+
+    @Test
+    void closingTwiceReleasesOnePermit() throws Exception {
+        Connection connection = dataSource.getConnection();
+        connection.close();
+        connection.close();
+
+        assertThat(dataSource.getActivePermits()).isZero();
+        try (Connection ignored = dataSource.getConnection()) {
+            assertThat(dataSource.getActivePermits()).isEqualTo(1);
+        }
+    }
+}
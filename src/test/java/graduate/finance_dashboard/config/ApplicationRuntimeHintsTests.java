@@ -0,0 +1,65 @@
+package graduate.finance_dashboard.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import graduate.finance_dashboard.dto.ExpenseImportRow;
+import graduate.finance_dashboard.dto.MoneyJson;
+import graduate.finance_dashboard.dto.MonthlyCategoryTotalDto;
+import graduate.finance_dashboard.model.Expense;
+import graduate.finance_dashboard.model.MoneyConverter;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.sql.Connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ApplicationRuntimeHintsTests {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    ApplicationRuntimeHintsTests() {
+        new ApplicationRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void importRowsCanBeBoundByJackson() throws NoSuchMethodException {
+        assertThat(RuntimeHintsPredicates.reflection().onType(ExpenseImportRow.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection()
+                .onMethod(ExpenseImportRow.class.getMethod("setAmount", String.class))).accepts(hints);
+    }
+
+    @Test
+    void queryProjectionsCanBeInstantiatedByHibernate() {
+        assertThat(RuntimeHintsPredicates.reflection().onType(MonthlyCategoryTotalDto.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+    }
+
+    @Test
+    void entitiesExposeTheirFieldsAndCallbacks() {
+        assertThat(RuntimeHintsPredicates.reflection().onType(Expense.class)
+                .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_METHODS))
+                .accepts(hints);
+    }
+
+    @Test
+    void moneyConvertersCanBeInstantiated() {
+        assertThat(RuntimeHintsPredicates.reflection().onType(MoneyConverter.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(MoneyJson.Deserializer.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+    }
+
+    @Test
+    void secondLevelCacheProviderCanBeLoaded() {
+        assertThat(RuntimeHintsPredicates.reflection().onType(CaffeineCachingProvider.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("reference.conf")).accepts(hints);
+    }
+
+    @Test
+    void pooledConnectionsCanBeProxied() {
+        assertThat(RuntimeHintsPredicates.proxies().forInterfaces(Connection.class)).accepts(hints);
+    }
+}
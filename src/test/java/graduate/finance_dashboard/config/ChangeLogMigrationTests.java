@@ -0,0 +1,48 @@
+package graduate.finance_dashboard.config;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Migrates a database that already holds data from before the change feed, and checks
+ * the feed starts out with every existing row.
+ */
+class ChangeLogMigrationTests {
+
+    @Test
+    void existingRowsAreBackfilledIntoTheChangeLog() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+                "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        migrate(dataSource, "3");
+        jdbcTemplate.update("insert into users (user_id, email) values (1, 'jan@example.com'), (2, 'ola@example.com')");
+        jdbcTemplate.update("insert into category (id, name, user_id) values (10, 'Food', 2), (11, 'Food', 1), (12, 'Travel', 1)");
+        jdbcTemplate.update("insert into expense (id, amount, category_id, user_id, created_at) values "
+                + "(20, 1.00, 12, 1, timestamp '2024-03-01 12:00:00'), (21, 2.00, 10, 2, timestamp '2024-03-02 12:00:00'), "
+                + "(22, 3.00, 11, 1, timestamp '2024-03-03 12:00:00')");
+        migrate(dataSource, "latest");
+
+        assertThat(jdbcTemplate.query("select user_id, entity_type, entity_id, operation from change_log order by seq",
+                (row, rowNum) -> tuple(row.getLong(1), row.getString(2), row.getLong(3), row.getString(4))))
+                .containsExactly(
+                        tuple(1L, "CATEGORY", 11L, "UPSERT"),
+                        tuple(1L, "CATEGORY", 12L, "UPSERT"),
+                        tuple(1L, "EXPENSE", 20L, "UPSERT"),
+                        tuple(1L, "EXPENSE", 22L, "UPSERT"),
+                        tuple(2L, "CATEGORY", 10L, "UPSERT"),
+                        tuple(2L, "EXPENSE", 21L, "UPSERT"));
+    }
+
+    private static void migrate(DriverManagerDataSource dataSource, String target) {
+        Flyway.configure().dataSource(dataSource).target(target).load().migrate();
+    }
+}
@@ -0,0 +1,69 @@
+package graduate.finance_dashboard.config;
+
+import graduate.finance_dashboard.TestUsers;
+import graduate.finance_dashboard.model.Category;
+import graduate.finance_dashboard.model.User;
+import graduate.finance_dashboard.repository.CategoryRepository;
+import graduate.finance_dashboard.repository.UserRepository;
+import graduate.finance_dashboard.service.SessionTokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class MetricsEndpointTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private SessionTokenService sessionTokenService;
+
+    @Test
+    void scrapeRequiresAdminCredentialsButHealthDoesNot() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("admin", "wrong")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void exposesRouteLatencyQueriesPerRequestRepositoryAndPoolMetrics() throws Exception {
+        User user = TestUsers.create(userRepository);
+        categoryRepository.save(Category.builder().name("Food").user(user).build());
+        String bearer = "Bearer " + sessionTokenService.issue(user.getUser_id()).token();
+
+        mockMvc.perform(get("/api/categories/{id}", 0).header(HttpHeaders.AUTHORIZATION, bearer));
+        mockMvc.perform(get("/api/categories").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus").with(httpBasic("admin", "admin")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape)
+                .contains("http_server_requests_seconds_bucket{")
+                .contains("uri=\"/api/categories\"")
+                .contains("http_server_requests_queries_statements_bucket{")
+                .contains("spring_data_repository_invocations_seconds_bucket{")
+                .contains("hikaricp_connections_max");
+        assertThat(scrape.lines()
+                .filter(line -> line.startsWith("http_server_requests_queries_statements_count{"))
+                .filter(line -> line.contains("uri=\"/api/categories/{id}\"")))
+                .isNotEmpty();
+    }
+}
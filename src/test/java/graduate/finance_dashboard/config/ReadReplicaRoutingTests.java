@@ -0,0 +1,153 @@
+package graduate.finance_dashboard.config;
+
+import graduate.finance_dashboard.TestUsers;
+import com.zaxxer.hikari.HikariDataSource;
+import graduate.finance_dashboard.model.User;
+import graduate.finance_dashboard.repository.UserRepository;
+import graduate.finance_dashboard.service.SessionTokenService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The replica is a second pool on the in-memory test database, so both pools see the same
+ * data and the tests tell them apart by which one handed out the connection.
+ */
+@SpringBootTest(properties = {
+        "app.datasource.replica.enabled=true",
+        "app.datasource.replica.url=${spring.datasource.url}",
+        "app.datasource.replica.lag-query=select 0",
+        "app.datasource.replica.lag-check-ms=3600000",
+        "app.datasource.replica.read-your-writes-window=2h"
+})
+@AutoConfigureMockMvc
+class ReadReplicaRoutingTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+    @Autowired
+    private MeterRegistry registry;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private SessionTokenService sessionTokenService;
+
+    @BeforeEach
+    void replicaIsCurrent() {
+        lagMonitor.recordLag(Duration.ZERO);
+    }
+
+    @AfterEach
+    void resetLag() {
+        lagMonitor.recordLag(Duration.ZERO);
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplicaAndOthersThePrimary() {
+        assertThat(dataSource).isInstanceOf(LazyConnectionDataSourceProxy.class);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+
+        boolean readOnlyOnReplica = readOnly.execute(status -> {
+            jdbcTemplate.queryForObject("select 1", Integer.class);
+            return replicaConnectionsInUse() == 1;
+        });
+        boolean readWriteOnReplica = readWrite.execute(status -> {
+            jdbcTemplate.queryForObject("select 1", Integer.class);
+            return replicaConnectionsInUse() == 1;
+        });
+
+        assertThat(readOnlyOnReplica).isTrue();
+        assertThat(readWriteOnReplica).isFalse();
+    }
+
+    @Test
+    void readsOfUsersWhoJustWroteStayOnThePrimary() throws Exception {
+        String writer = bearer(TestUsers.create(userRepository));
+        String reader = bearer(TestUsers.create(userRepository));
+
+        mockMvc.perform(post("/api/categories")
+                        .header(HttpHeaders.AUTHORIZATION, writer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Food\"}"))
+                .andExpect(status().isOk());
+
+        double primary = reads("primary");
+        double replica = reads("replica");
+        mockMvc.perform(get("/api/expenses/page").header(HttpHeaders.AUTHORIZATION, writer))
+                .andExpect(status().isOk());
+        assertThat(reads("primary")).isGreaterThan(primary);
+        assertThat(reads("replica")).isEqualTo(replica);
+
+        primary = reads("primary");
+        mockMvc.perform(get("/api/expenses/page").header(HttpHeaders.AUTHORIZATION, reader))
+                .andExpect(status().isOk());
+        assertThat(reads("replica")).isGreaterThan(replica);
+        assertThat(reads("primary")).isEqualTo(primary);
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhileTheReplicaLags() throws Exception {
+        String reader = bearer(TestUsers.create(userRepository));
+        lagMonitor.recordLag(Duration.ofMinutes(1));
+
+        double primary = reads("primary");
+        double replica = reads("replica");
+        mockMvc.perform(get("/api/expenses/page").header(HttpHeaders.AUTHORIZATION, reader))
+                .andExpect(status().isOk());
+        assertThat(reads("primary")).isGreaterThan(primary);
+        assertThat(reads("replica")).isEqualTo(replica);
+
+        lagMonitor.recordLag(null);
+        assertThat(lagMonitor.isBehind()).isTrue();
+    }
+
+    private int replicaConnectionsInUse() {
+        try {
+            return replicaDataSource.unwrap(HikariDataSource.class)
+                    .getHikariPoolMXBean().getActiveConnections();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private double reads(String target) {
+        return registry.counter("datasource.reads", "target", target).count();
+    }
+
+    private String bearer(User user) {
+        return "Bearer " + sessionTokenService.issue(user.getUser_id()).token();
+    }
+}
@@ -0,0 +1,68 @@
+package graduate.finance_dashboard.controller;
+
+import graduate.finance_dashboard.TestUsers;
+import graduate.finance_dashboard.model.User;
+import graduate.finance_dashboard.repository.UserRepository;
+import graduate.finance_dashboard.service.SessionTokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ChangeEventControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private SessionTokenService sessionTokenService;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        User user = TestUsers.create(userRepository);
+        token = sessionTokenService.issue(user.getUser_id()).token();
+    }
+
+    @Test
+    void streamsCommittedChangesOfTheCaller() throws Exception {
+        MockHttpServletResponse stream = mockMvc.perform(get("/api/events").param("access_token", token))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+
+        mockMvc.perform(post("/api/categories").header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Food\"}"))
+                .andExpect(status().isOk());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!stream.getContentAsString().contains("event:categories") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(stream.getContentAsString())
+                .contains("event:ready")
+                .contains("event:categories")
+                .doesNotContain("event:expenses");
+    }
+
+    @Test
+    void tokenInQueryIsOnlyAcceptedForTheEventStream() throws Exception {
+        mockMvc.perform(get("/api/expenses").param("access_token", token))
+                .andExpect(status().isUnauthorized());
+    }
+}
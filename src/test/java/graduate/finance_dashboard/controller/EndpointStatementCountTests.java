@@ -0,0 +1,308 @@
+package graduate.finance_dashboard.controller;
+
+import graduate.finance_dashboard.TestUsers;
+import graduate.finance_dashboard.dto.SummaryBucket;
+import graduate.finance_dashboard.model.Category;
+import graduate.finance_dashboard.model.Expense;
+import graduate.finance_dashboard.model.Money;
+import graduate.finance_dashboard.model.User;
+import graduate.finance_dashboard.repository.CategoryRepository;
+import graduate.finance_dashboard.repository.ExpenseRepository;
+import graduate.finance_dashboard.repository.UserRepository;
+import graduate.finance_dashboard.service.ExpenseRollupService;
+import graduate.finance_dashboard.service.SessionTokenService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements each endpoint issues. Every user owns enough expenses
+ * that loading an association by accident shows up as a larger count, not as a subtle
+ * slowdown. Callers authenticate with a session token, which is verified without a query.
+ * Every write also locks the user's row and appends to the change log: two statements.
+ * Looking up a category by id costs none, it comes from the second-level cache.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class EndpointStatementCountTests {
+
+    private static final int EXPENSES_PER_CATEGORY = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ExpenseRepository expenseRepository;
+    @Autowired
+    private SessionTokenService sessionTokenService;
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private String bearer;
+    private Category food;
+    private Category travel;
+    private Expense expense;
+
+    @BeforeEach
+    void setUp() {
+        User user = TestUsers.create(userRepository);
+        food = categoryRepository.save(Category.builder().name("Food").user(user).build());
+        travel = categoryRepository.save(Category.builder().name("Travel").user(user).build());
+        for (int i = 0; i < EXPENSES_PER_CATEGORY; i++) {
+            expense = expenseRepository.save(Expense.builder()
+                    .amount(Money.of("10.00")).description("Lunch " + i).category(food).user(user).build());
+            expenseRepository.save(Expense.builder()
+                    .amount(Money.of("1.00")).description("Bus " + i).category(travel).user(user).build());
+        }
+        expenseRollupService.rebuild(user.getUser_id());
+        // Read once, as any dashboard would, so categories come from the second-level cache.
+        // Rows inserted with identity ids are cached on their first load, not on insert.
+        categoryRepository.findById(food.getId());
+        categoryRepository.findById(travel.getId());
+        bearer = "Bearer " + sessionTokenService.issue(user.getUser_id()).token();
+    }
+
+    @Test
+    void listExpenses() throws Exception {
+        assertStatements(get("/api/expenses").header(HttpHeaders.AUTHORIZATION, bearer), 1);
+    }
+
+    @Test
+    void unchangedExpenseListIsNotQueriedAgain() throws Exception {
+        String etag = mockMvc.perform(get("/api/expenses").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertStatements(get("/api/expenses").header(HttpHeaders.AUTHORIZATION, bearer)
+                .header(HttpHeaders.IF_NONE_MATCH, etag), 0, status().isNotModified());
+
+        mockMvc.perform(delete("/api/expenses/{id}", expense.getId()).header(HttpHeaders.AUTHORIZATION, bearer));
+        assertStatements(get("/api/expenses").header(HttpHeaders.AUTHORIZATION, bearer)
+                .header(HttpHeaders.IF_NONE_MATCH, etag), 1, status().isOk());
+    }
+
+    @Test
+    void unchangedCategoryListIsNotQueriedAgain() throws Exception {
+        String etag = mockMvc.perform(get("/api/categories").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertStatements(get("/api/categories").header(HttpHeaders.AUTHORIZATION, bearer)
+                .header(HttpHeaders.IF_NONE_MATCH, etag), 0, status().isNotModified());
+
+        mockMvc.perform(put("/api/categories/{id}", food.getId()).header(HttpHeaders.AUTHORIZATION, bearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Groceries\"}"));
+        assertStatements(get("/api/categories").header(HttpHeaders.AUTHORIZATION, bearer)
+                .header(HttpHeaders.IF_NONE_MATCH, etag), 1, status().isOk());
+    }
+
+    @Test
+    void unchangedExpenseIsNotModified() throws Exception {
+        mockMvc.perform(get("/api/expenses/{id}", expense.getId()).header(HttpHeaders.AUTHORIZATION, bearer)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + expense.getVersion() + "\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void streamExpenses() throws Exception {
+        assertStatements(get("/api/expenses").accept(ExpenseController.NDJSON).header(HttpHeaders.AUTHORIZATION, bearer), 1);
+    }
+
+    @Test
+    void expensePage() throws Exception {
+        assertStatements(get("/api/expenses/page").param("limit", "10").header(HttpHeaders.AUTHORIZATION, bearer), 1);
+    }
+
+    @Test
+    void getExpense() throws Exception {
+        assertStatements(get("/api/expenses/{id}", expense.getId()).header(HttpHeaders.AUTHORIZATION, bearer), 1);
+    }
+
+    @Test
+    void expensesByCategory() throws Exception {
+        assertStatements(get("/api/expenses/category/{id}", food.getId()).header(HttpHeaders.AUTHORIZATION, bearer), 1);
+    }
+
+    @Test
+    void expensesByDateRange() throws Exception {
+        assertStatements(get("/api/expenses/date-range")
+                .param("start", LocalDateTime.now().minusDays(1).toString())
+                .param("end", LocalDateTime.now().plusDays(1).toString())
+                .header(HttpHeaders.AUTHORIZATION, bearer), 1);
+    }
+
+    // Both summaries read base-currency aggregates and foreign-currency daily totals.
+    @Test
+    void summarizeByCategory() throws Exception {
+        assertStatements(get("/api/expenses/summary/categories")
+                .param("start", LocalDateTime.now().minusDays(1).toString())
+                .param("end", LocalDateTime.now().plusDays(1).toString())
+                .header(HttpHeaders.AUTHORIZATION, bearer), 2);
+    }
+
+    @Test
+    void summarizeByPeriod() throws Exception {
+        for (SummaryBucket bucket : SummaryBucket.values()) {
+            assertStatements(get("/api/expenses/summary/periods")
+                    .param("bucket", bucket.name())
+                    .param("start", LocalDateTime.now().minusDays(1).toString())
+                    .param("end", LocalDateTime.now().plusDays(1).toString())
+                    .header(HttpHeaders.AUTHORIZATION, bearer), 2);
+        }
+    }
+
+    @Test
+    void monthlyTotals() throws Exception {
+        assertStatements(get("/api/expenses/summary/monthly")
+                .param("from", LocalDate.now().minusYears(1).toString())
+                .param("to", LocalDate.now().toString())
+                .header(HttpHeaders.AUTHORIZATION, bearer), 1);
+    }
+
+    @Test
+    void createExpense() throws Exception {
+        assertStatements(post("/api/expenses").header(HttpHeaders.AUTHORIZATION, bearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\": 12.50, \"description\": \"Dinner\", \"categoryId\": " + food.getId() + "}"), 4);
+    }
+
+    @Test
+    void expenseInAnUnknownCurrencyIsRejected() throws Exception {
+        mockMvc.perform(post("/api/expenses").header(HttpHeaders.AUTHORIZATION, bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\": 12.50, \"currency\": \"JPY\", \"categoryId\": " + food.getId() + "}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void updateExpense() throws Exception {
+        assertStatements(put("/api/expenses/{id}", expense.getId()).header(HttpHeaders.AUTHORIZATION, bearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\": 15.00, \"categoryId\": " + travel.getId() + "}"), 6);
+    }
+
+    @Test
+    void patchExpenseAmount() throws Exception {
+        assertStatements(patch("/api/expenses/{id}", expense.getId()).header(HttpHeaders.AUTHORIZATION, bearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\": 15.00, \"version\": " + expense.getVersion() + "}"), 5);
+    }
+
+    @Test
+    void patchWithStaleVersionIsRejected() throws Exception {
+        mockMvc.perform(patch("/api/expenses/{id}", expense.getId()).header(HttpHeaders.AUTHORIZATION, bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\": 15.00, \"version\": " + (expense.getVersion() + 1) + "}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void requestsWithoutAValidTokenAreRejected() throws Exception {
+        mockMvc.perform(get("/api/expenses")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/expenses").header(HttpHeaders.AUTHORIZATION, bearer + "x"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/expenses").header("Email", "anyone@example.com"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void deleteExpense() throws Exception {
+        assertStatements(delete("/api/expenses/{id}", expense.getId()).header(HttpHeaders.AUTHORIZATION, bearer), 5);
+    }
+
+    @Test
+    void syncChanges() throws Exception {
+        mockMvc.perform(patch("/api/expenses/{id}", expense.getId()).header(HttpHeaders.AUTHORIZATION, bearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\": 15.00}"));
+
+        assertStatements(get("/api/sync").param("since", "0").header(HttpHeaders.AUTHORIZATION, bearer), 2);
+    }
+
+    @Test
+    void listCategories() throws Exception {
+        assertStatements(get("/api/categories").header(HttpHeaders.AUTHORIZATION, bearer), 1);
+        assertStatements(get("/api/categories").header(HttpHeaders.AUTHORIZATION, bearer), 0);
+    }
+
+    @Test
+    void getCategory() throws Exception {
+        assertStatements(get("/api/categories/{id}", food.getId()).header(HttpHeaders.AUTHORIZATION, bearer), 0);
+    }
+
+    @Test
+    void anotherUsersCategoryIsForbidden() throws Exception {
+        String otherBearer = "Bearer " + sessionTokenService.issue(TestUsers.create(userRepository).getUser_id()).token();
+
+        mockMvc.perform(get("/api/categories/{id}", food.getId()).header(HttpHeaders.AUTHORIZATION, otherBearer))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void createCategory() throws Exception {
+        assertStatements(post("/api/categories").header(HttpHeaders.AUTHORIZATION, bearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Rent\"}"), 4);
+    }
+
+    @Test
+    void updateCategory() throws Exception {
+        assertStatements(put("/api/categories/{id}", food.getId()).header(HttpHeaders.AUTHORIZATION, bearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Groceries\"}"), 4);
+    }
+
+    @Test
+    void deleteCategory() throws Exception {
+        // Lock, two change log inserts, then one delete each for expenses, rollups and the
+        // category, independent of how many expenses the category holds.
+        assertStatements(delete("/api/categories/{id}", travel.getId()).header(HttpHeaders.AUTHORIZATION, bearer), 6);
+        assertThat(expenseRepository.findByUserAndCategory(travel.getUser(), travel)).isEmpty();
+    }
+
+    @Test
+    void deleteAccount() throws Exception {
+        // Lock, read the email for cache eviction, then one delete per table.
+        assertStatements(delete("/api/account").header(HttpHeaders.AUTHORIZATION, bearer), 7);
+        assertThat(userRepository.findById(food.getUser().getUser_id())).isEmpty();
+
+        mockMvc.perform(post("/api/categories").header(HttpHeaders.AUTHORIZATION, bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Rent\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private void assertStatements(RequestBuilder request, long expected) throws Exception {
+        assertStatements(request, expected, status().is2xxSuccessful());
+    }
+
+    private void assertStatements(RequestBuilder request, long expected, ResultMatcher expectedStatus) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(request).andExpect(expectedStatus);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,140 @@
+package graduate.finance_dashboard.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graduate.finance_dashboard.TestUsers;
+import graduate.finance_dashboard.dto.ExpenseDto;
+import graduate.finance_dashboard.dto.ExpensePageDto;
+import graduate.finance_dashboard.model.Category;
+import graduate.finance_dashboard.model.Expense;
+import graduate.finance_dashboard.model.Money;
+import graduate.finance_dashboard.model.User;
+import graduate.finance_dashboard.repository.CategoryRepository;
+import graduate.finance_dashboard.repository.ExpenseRepository;
+import graduate.finance_dashboard.repository.UserRepository;
+import graduate.finance_dashboard.service.ExpenseService;
+import graduate.finance_dashboard.service.SessionTokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Keyset pages and the NDJSON stream of a user's expenses, newest first with ties on
+ * {@code createdAt} broken by id.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ExpensePagingControllerTests {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2024, 3, 4, 12, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ExpenseRepository expenseRepository;
+    @Autowired
+    private SessionTokenService sessionTokenService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        User user = TestUsers.create(userRepository);
+        Category food = categoryRepository.save(Category.builder().name("Food").user(user).build());
+        // Three expenses share one timestamp, so every page boundary below falls on a tie.
+        save(user, food, "A", NOON);
+        save(user, food, "B", NOON);
+        save(user, food, "C", NOON);
+        save(user, food, "D", NOON.minusDays(1));
+        save(user, food, "E", NOON.minusDays(1));
+        bearer = "Bearer " + sessionTokenService.issue(user.getUser_id()).token();
+    }
+
+    @Test
+    void pagesContinueFromTheCursorAcrossEqualTimestamps() throws Exception {
+        List<String> descriptions = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            ExpensePageDto page = page(cursor, 2);
+            page.getItems().forEach(expense -> descriptions.add(expense.getDescription()));
+            pageSizes.add(page.getItems().size());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(descriptions).containsExactly("C", "B", "A", "E", "D");
+        assertThat(pageSizes).containsExactly(2, 2, 1);
+    }
+
+    @Test
+    void malformedCursorIsRejected() throws Exception {
+        for (String cursor : new String[]{"not a cursor", "bm8tc2VwYXJhdG9y", "eHx5"}) {
+            mockMvc.perform(get("/api/expenses/page").param("cursor", cursor).header(HttpHeaders.AUTHORIZATION, bearer))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Test
+    void pageSizeMustBeWithinBounds() throws Exception {
+        for (int limit : new int[]{0, -1, ExpenseService.MAX_PAGE_SIZE + 1}) {
+            mockMvc.perform(get("/api/expenses/page").param("limit", String.valueOf(limit))
+                            .header(HttpHeaders.AUTHORIZATION, bearer))
+                    .andExpect(status().isBadRequest());
+        }
+        assertThat(page(null, ExpenseService.MAX_PAGE_SIZE).getItems()).hasSize(5);
+        assertThat(page(null, 1).getItems()).extracting(ExpenseDto::getDescription).containsExactly("C");
+    }
+
+    @Test
+    void streamsOneJsonObjectPerLine() throws Exception {
+        String body = mockMvc.perform(get("/api/expenses").header(HttpHeaders.AUTHORIZATION, bearer)
+                        .accept(ExpenseController.NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(ExpenseController.NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body).endsWith("\n");
+        List<String> descriptions = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            descriptions.add(objectMapper.readValue(line, ExpenseDto.class).getDescription());
+        }
+        assertThat(descriptions).containsExactly("C", "B", "A", "E", "D");
+    }
+
+    private ExpensePageDto page(String cursor, int limit) throws Exception {
+        String body = mockMvc.perform(get("/api/expenses/page").param("limit", String.valueOf(limit))
+                        .param("cursor", cursor != null ? cursor : "")
+                        .header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, ExpensePageDto.class);
+    }
+
+    private void save(User user, Category category, String description, LocalDateTime createdAt) {
+        Expense expense = expenseRepository.save(Expense.builder()
+                .amount(Money.of("10.00")).description(description).category(category).user(user).build());
+        // createdAt is assigned on insert; set it afterwards to get exact ties.
+        jdbcTemplate.update("update expense set created_at = ? where id = ?", createdAt, expense.getId());
+    }
+}
@@ -0,0 +1,78 @@
+package graduate.finance_dashboard.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import graduate.finance_dashboard.dto.ExpenseDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class MoneyTests {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void parsesPlainDecimalsRoundingHalfUpLikeTheColumn() {
+        assertThat(Money.parseMinorUnits("12.5")).isEqualTo(1250);
+        assertThat(Money.parseMinorUnits(" -0.005 ")).isEqualTo(-1);
+        assertThat(Money.parseMinorUnits("1.1249")).isEqualTo(112);
+        assertThat(Money.parseMinorUnits(".5")).isEqualTo(50);
+        assertThat(Money.parseMinorUnits("+7.")).isEqualTo(700);
+        for (String invalid : new String[]{"", "-", ".", "1e3", "1.2.3", "12,50", "99999999999999999999"}) {
+            assertThatThrownBy(() -> Money.parseMinorUnits(invalid)).isInstanceOf(NumberFormatException.class);
+        }
+    }
+
+    @Test
+    void rejectsExponentsOutOfRangeWithoutRescaling() {
+        assertThat(Money.parseMinorUnitsWithExponent("1.5e1")).isEqualTo(1500);
+        assertThat(Money.parseMinorUnitsWithExponent("125E-2")).isEqualTo(125);
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+            for (String invalid : new String[]{"1e100000000", "-1e100000000", "1e-100000000", "1e17",
+                    "9".repeat(100_000), "1" + "0".repeat(100_000) + "e-99999"}) {
+                assertThatThrownBy(() -> Money.parseMinorUnitsWithExponent(invalid))
+                        .isInstanceOf(NumberFormatException.class);
+            }
+            assertThatThrownBy(() -> objectMapper.readValue("{\"amount\": 1e100000000}", ExpenseDto.class))
+                    .isInstanceOf(InvalidFormatException.class);
+        });
+    }
+
+    @Test
+    void formatsWithTwoDecimalPlaces() {
+        assertThat(new Money(1205).toPlainString()).isEqualTo("12.05");
+        assertThat(new Money(-5).toPlainString()).isEqualTo("-0.05");
+        assertThat(new Money(Long.MIN_VALUE).toPlainString())
+                .isEqualTo(BigDecimal.valueOf(Long.MIN_VALUE, 2).toPlainString());
+        assertThat(Money.of(new BigDecimal("3.14159")).toBigDecimal()).isEqualByComparingTo("3.14");
+    }
+
+    @Test
+    void arithmeticIsOverflowChecked() {
+        assertThat(new Money(150).plus(new Money(-50))).isEqualTo(new Money(100));
+        assertThatThrownBy(() -> new Money(Long.MAX_VALUE).plus(new Money(1)))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void keepsTheJsonWireFormat() throws Exception {
+        ExpenseDto dto = objectMapper.readValue("{\"amount\": 12.5}", ExpenseDto.class);
+        assertThat(dto.getAmount()).isEqualTo(new Money(1250));
+        assertThat(objectMapper.writeValueAsString(dto)).contains("\"amount\":12.50,");
+
+        assertThat(objectMapper.readValue("{\"amount\": 3}", ExpenseDto.class).getAmount().minorUnits()).isEqualTo(300);
+        assertThat(objectMapper.readValue("{\"amount\": \"4.20\"}", ExpenseDto.class).getAmount().minorUnits())
+                .isEqualTo(420);
+        assertThat(objectMapper.readValue("{\"amount\": 1.5e1}", ExpenseDto.class).getAmount().minorUnits())
+                .isEqualTo(1500);
+        assertThat(objectMapper.readValue("{\"amount\": null}", ExpenseDto.class).getAmount()).isNull();
+        assertThatThrownBy(() -> objectMapper.readValue("{\"amount\": \"abc\"}", ExpenseDto.class))
+                .isInstanceOf(InvalidFormatException.class);
+    }
+}
@@ -0,0 +1,99 @@
+package graduate.finance_dashboard.service;
+
+import graduate.finance_dashboard.TestUsers;
+import graduate.finance_dashboard.exception.ApiException;
+import graduate.finance_dashboard.model.Category;
+import graduate.finance_dashboard.model.User;
+import graduate.finance_dashboard.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class CategoryCacheTests {
+
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private MeterRegistry registry;
+
+    private User owner;
+    private User other;
+    private Category food;
+
+    @BeforeEach
+    void setUp() {
+        owner = TestUsers.create(userRepository);
+        other = TestUsers.create(userRepository);
+        food = categoryService.createCategory(Category.builder().name("Food").build(), owner);
+        categoryService.createCategory(Category.builder().name("Books").build(), other);
+        categoryService.getCategoryById(food.getId());
+        categoryService.getCategoriesByUser(owner);
+        categoryService.getCategoriesByUser(other);
+    }
+
+    @Test
+    void cachedLookupsIssueNoStatements() {
+        assertThat(categoryService.getCategoryById(food.getId()).getName()).isEqualTo("Food");
+        assertThat(statementCount(() -> categoryService.getCategoryById(food.getId()))).isZero();
+        assertThat(statementCount(() -> categoryService.getCategoriesByUser(owner))).isZero();
+        assertThat(categoryService.getCategoriesByUser(owner)).extracting(Category::getName).containsExactly("Food");
+    }
+
+    @Test
+    void renameIsVisibleAndOnlyTheOwnersListIsReloaded() {
+        Category changes = Category.builder().name("Groceries").build();
+        categoryService.updateCategory(food.getId(), changes, owner);
+
+        assertThat(categoryService.getCategoryById(food.getId()).getName()).isEqualTo("Groceries");
+        assertThat(statementCount(() -> categoryService.getCategoryById(food.getId()))).isZero();
+        assertThat(statementCount(() -> categoryService.getCategoriesByUser(other))).isZero();
+        assertThat(categoryService.getCategoriesByUser(owner)).extracting(Category::getName).containsExactly("Groceries");
+    }
+
+    @Test
+    void createdAndDeletedCategoriesShowUpInTheOwnersList() {
+        Category rent = categoryService.createCategory(Category.builder().name("Rent").build(), owner);
+
+        assertThat(statementCount(() -> categoryService.getCategoriesByUser(other))).isZero();
+        assertThat(categoryService.getCategoriesByUser(owner)).extracting(Category::getName)
+                .containsExactlyInAnyOrder("Food", "Rent");
+
+        categoryService.deleteCategory(rent.getId(), owner);
+
+        assertThat(categoryService.getCategoriesByUser(owner)).extracting(Category::getName).containsExactly("Food");
+        assertThatThrownBy(() -> categoryService.getCategoryById(rent.getId())).isInstanceOf(ApiException.class);
+        assertThat(statementCount(() -> categoryService.getCategoryById(food.getId()))).isZero();
+    }
+
+    @Test
+    void exposesHitAndMissCounts() {
+        categoryService.getCategoryById(food.getId());
+
+        assertThat(registry.get("cache.gets").tags("cache", Category.CACHE_REGION, "result", "hit")
+                .functionCounter().count()).isPositive();
+        assertThat(registry.get("cache.gets").tags("cache", UserCategoryIds.REGION, "result", "hit")
+                .functionCounter().count()).isPositive();
+    }
+
+    private long statementCount(Supplier<?> call) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        call.get();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,91 @@
+package graduate.finance_dashboard.service;
+
+import graduate.finance_dashboard.TestUsers;
+import graduate.finance_dashboard.dto.SyncChangeDto;
+import graduate.finance_dashboard.dto.SyncPageDto;
+import graduate.finance_dashboard.model.Category;
+import graduate.finance_dashboard.model.ChangeLogEntry.EntityType;
+import graduate.finance_dashboard.model.ChangeLogEntry.Operation;
+import graduate.finance_dashboard.model.Expense;
+import graduate.finance_dashboard.model.Money;
+import graduate.finance_dashboard.model.User;
+import graduate.finance_dashboard.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+class ChangeLogServiceTests {
+
+    @Autowired
+    private ChangeLogService changeLogService;
+    @Autowired
+    private ExpenseService expenseService;
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = TestUsers.create(userRepository);
+    }
+
+    @Test
+    void returnsOnlyTheLatestChangePerEntityAfterThePosition() {
+        Category food = categoryService.createCategory(Category.builder().name("Food").build(), user);
+        Expense lunch = createExpense(food, "Lunch");
+        Expense dinner = createExpense(food, "Dinner");
+        long position = changeLogService.getChanges(user.getUser_id(), 0, 100).next();
+
+        Expense changes = new Expense();
+        changes.setAmount(Money.of("12.00"));
+        expenseService.updateExpense(lunch.getId(), changes, null, user);
+        expenseService.updateExpense(lunch.getId(), changes, null, user);
+        expenseService.deleteExpense(dinner.getId(), user);
+
+        SyncPageDto page = changeLogService.getChanges(user.getUser_id(), position, 100);
+
+        assertThat(page.changes())
+                .extracting(SyncChangeDto::type, SyncChangeDto::id, SyncChangeDto::operation)
+                .containsExactly(
+                        tuple(EntityType.EXPENSE, lunch.getId(), Operation.UPSERT),
+                        tuple(EntityType.EXPENSE, dinner.getId(), Operation.DELETE));
+        assertThat(page.changes().get(0).expense().getAmount()).isEqualTo(Money.of("12.00"));
+        assertThat(page.changes().get(1).expense()).isNull();
+        assertThat(page.hasMore()).isFalse();
+    }
+
+    @Test
+    void pagesThroughChangesAndLeavesTombstonesForDeletedCategories() {
+        Category food = categoryService.createCategory(Category.builder().name("Food").build(), user);
+        Expense lunch = createExpense(food, "Lunch");
+        Expense dinner = createExpense(food, "Dinner");
+
+        SyncPageDto first = changeLogService.getChanges(user.getUser_id(), 0, 2);
+        assertThat(first.changes()).hasSize(2);
+        assertThat(first.hasMore()).isTrue();
+        SyncPageDto second = changeLogService.getChanges(user.getUser_id(), first.next(), 2);
+        assertThat(second.changes()).extracting(SyncChangeDto::id).containsExactly(dinner.getId());
+
+        categoryService.deleteCategory(food.getId(), user);
+
+        assertThat(changeLogService.getChanges(user.getUser_id(), second.next(), 100).changes())
+                .extracting(SyncChangeDto::type, SyncChangeDto::id, SyncChangeDto::operation)
+                .containsExactlyInAnyOrder(
+                        tuple(EntityType.EXPENSE, lunch.getId(), Operation.DELETE),
+                        tuple(EntityType.EXPENSE, dinner.getId(), Operation.DELETE),
+                        tuple(EntityType.CATEGORY, food.getId(), Operation.DELETE));
+    }
+
+    private Expense createExpense(Category category, String description) {
+        return expenseService.createExpense(Expense.builder()
+                .amount(Money.of("10.00")).description(description).category(category).build(), user);
+    }
+}
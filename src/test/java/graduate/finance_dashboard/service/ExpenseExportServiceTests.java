@@ -0,0 +1,83 @@
+package graduate.finance_dashboard.service;
+
+import graduate.finance_dashboard.TestUsers;
+import graduate.finance_dashboard.dto.ExpenseExportFormat;
+import graduate.finance_dashboard.model.Category;
+import graduate.finance_dashboard.model.User;
+import graduate.finance_dashboard.repository.CategoryRepository;
+import graduate.finance_dashboard.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.export.window-size=3")
+class ExpenseExportServiceTests {
+
+    private static final int EXPENSES = 10;
+
+    @Autowired
+    private ExpenseExportService expenseExportService;
+    @Autowired
+    private ExpenseImportService expenseImportService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = TestUsers.create(userRepository);
+        Category food = categoryRepository.save(Category.builder().name("Food").user(user).build());
+
+        // Identical dates force the export to page on the id tie-breaker.
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < EXPENSES; i++) {
+            ndjson.append("{\"amount\": \"").append(i + 1).append(".25\", \"description\": \"Row ").append(i)
+                    .append("\", \"categoryId\": ").append(food.getId()).append(", \"date\": \"2024-03-01\"}\n");
+        }
+        expenseImportService.importNdjson(user, new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void exportsEveryRowOnceAcrossWindows() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        expenseExportService.export(filter(), ExpenseExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(EXPENSES + 1);
+        assertThat(Arrays.asList(lines).subList(1, lines.length))
+                .extracting(line -> line.split(",")[2])
+                .doesNotHaveDuplicates();
+    }
+
+    @Test
+    void columnarBlocksFollowWindows() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        expenseExportService.export(filter(), ExpenseExportFormat.COLUMNAR, out);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        assertThat(in.readNBytes(4)).isEqualTo("FDXC".getBytes(StandardCharsets.US_ASCII));
+        assertThat(in.readByte()).isEqualTo((byte) 2);
+        assertThat(in.readInt()).isEqualTo(3);
+        in.skipNBytes(3 * 8 * 3);
+        assertThat(in.readLong()).isEqualTo(1025);
+    }
+
+    private ExpenseExportService.Filter filter() {
+        return new ExpenseExportService.Filter(user.getUser_id(), null, null, null);
+    }
+}
@@ -0,0 +1,86 @@
+package graduate.finance_dashboard.service;
+
+import graduate.finance_dashboard.TestUsers;
+import graduate.finance_dashboard.dto.ExpenseImportResultDto;
+import graduate.finance_dashboard.model.Category;
+import graduate.finance_dashboard.model.User;
+import graduate.finance_dashboard.repository.CategoryRepository;
+import graduate.finance_dashboard.repository.ExpenseRepository;
+import graduate.finance_dashboard.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+class ExpenseImportServiceTests {
+
+    @Autowired
+    private ExpenseImportService expenseImportService;
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    private User user;
+    private Category food;
+
+    @BeforeEach
+    void setUp() {
+        user = TestUsers.create(userRepository);
+        food = categoryRepository.save(Category.builder().name("Food").user(user).build());
+    }
+
+    @Test
+    void importsCsvAndReportsRejectedRowsByLine() {
+        ExpenseImportResultDto result = expenseImportService.importCsv(user, body("""
+                amount,description,category,date
+                12.50,"Lunch, with team",Food,2024-03-01
+                -1,Refund,Food,2024-03-02
+                7.00,Bus,Travel,2024-03-02
+                3.10,,Food,2024-04-15T08:30:00
+                1e100000000,Huge,Food,2024-03-03
+                """));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getErrors())
+                .extracting(ExpenseImportResultDto.RowError::getLine, ExpenseImportResultDto.RowError::getMessage)
+                .containsExactly(
+                        tuple(3L, "The amount must be greater than zero"),
+                        tuple(4L, "Unknown category: Travel"),
+                        tuple(6L, "Invalid amount: 1e100000000"));
+        assertThat(expenseRepository.findByUser(user))
+                .extracting(expense -> expense.getCreatedAt().toLocalDate().toString())
+                .containsExactlyInAnyOrder("2024-03-01", "2024-04-15");
+        assertThat(expenseRollupService.verify(user.getUser_id())).isEmpty();
+    }
+
+    @Test
+    void importsNdjsonInBatches() {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 1234; i++) {
+            ndjson.append("{\"amount\": \"1.00\", \"categoryId\": ").append(food.getId()).append("}\n");
+        }
+
+        ExpenseImportResultDto result = expenseImportService.importNdjson(user, body(ndjson.toString()));
+
+        assertThat(result.getImported()).isEqualTo(1234);
+        assertThat(result.getRejected()).isZero();
+        assertThat(expenseRollupService.verify(user.getUser_id())).isEmpty();
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
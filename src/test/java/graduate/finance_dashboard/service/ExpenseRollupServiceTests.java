@@ -0,0 +1,81 @@
+package graduate.finance_dashboard.service;
+
+import graduate.finance_dashboard.TestUsers;
+import graduate.finance_dashboard.model.Category;
+import graduate.finance_dashboard.model.Expense;
+import graduate.finance_dashboard.model.Money;
+import graduate.finance_dashboard.model.User;
+import graduate.finance_dashboard.repository.CategoryRepository;
+import graduate.finance_dashboard.repository.ExpenseRepository;
+import graduate.finance_dashboard.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+class ExpenseRollupServiceTests {
+
+    @Autowired
+    private ExpenseService expenseService;
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ExpenseRepository expenseRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+    private Category food;
+    private Category travel;
+
+    @BeforeEach
+    void setUp() {
+        user = TestUsers.create(userRepository);
+        food = categoryRepository.save(Category.builder().name("Food").user(user).build());
+        travel = categoryRepository.save(Category.builder().name("Travel").user(user).build());
+    }
+
+    @Test
+    void writesThroughServiceKeepRollupsInStep() {
+        Expense lunch = expenseService.createExpense(expense("12.50", food), user);
+        Expense bus = expenseService.createExpense(expense("3.20", travel), user);
+        expenseService.createExpense(expense("7.00", food), user);
+
+        transactionTemplate.executeWithoutResult(status ->
+                expenseService.updateExpense(lunch.getId(), expense("20.00", travel), null, user));
+        expenseService.deleteExpense(bus.getId(), user);
+
+        assertThat(expenseRollupService.verify(user.getUser_id())).isEmpty();
+        assertThat(expenseRollupService.getTotals(user.getUser_id(), LocalDate.now(), LocalDate.now()))
+                .extracting(total -> total.total().setScale(2), total -> total.count())
+                .containsExactlyInAnyOrder(tuple(new BigDecimal("7.00"), 1L), tuple(new BigDecimal("20.00"), 1L));
+    }
+
+    @Test
+    void verifyReportsWritesThatBypassedRollupsAndRebuildRepairsThem() {
+        expenseService.createExpense(expense("5.00", food), user);
+        expenseRepository.save(expense("8.00", food));
+
+        assertThat(expenseRollupService.verify(user.getUser_id())).hasSize(1);
+
+        expenseRollupService.rebuild(user.getUser_id());
+
+        assertThat(expenseRollupService.verify(user.getUser_id())).isEmpty();
+    }
+
+    private Expense expense(String amount, Category category) {
+        return Expense.builder().amount(Money.of(amount)).category(category).user(user).build();
+    }
+}
@@ -0,0 +1,152 @@
+package graduate.finance_dashboard.service;
+
+import graduate.finance_dashboard.TestUsers;
+import graduate.finance_dashboard.model.Category;
+import graduate.finance_dashboard.model.Expense;
+import graduate.finance_dashboard.model.Money;
+import graduate.finance_dashboard.model.User;
+import graduate.finance_dashboard.repository.CategoryRepository;
+import graduate.finance_dashboard.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Creating or moving an expense must cost the same whether the category holds no
+ * expenses or a hundred thousand. Each operation runs the way a request does: the
+ * category is loaded as a managed entity in the same transaction. The bounds are loose
+ * enough for a noisy machine; loading the category's expenses would blow through them
+ * by orders of magnitude.
+ */
+@SpringBootTest
+class ExpenseServiceScalingTests {
+
+    private static final int LARGE_CATEGORY_SIZE = 100_000;
+    private static final int WARMUP = 50;
+    private static final int MEASURED = 200;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private ExpenseService expenseService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+    private Category empty;
+    private Category other;
+    private Category large;
+
+    @BeforeEach
+    void setUp() {
+        user = TestUsers.create(userRepository);
+        empty = categoryRepository.save(Category.builder().name("Empty").user(user).build());
+        other = categoryRepository.save(Category.builder().name("Other").user(user).build());
+        large = categoryRepository.save(Category.builder().name("Large").user(user).build());
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(LARGE_CATEGORY_SIZE);
+        for (int i = 0; i < LARGE_CATEGORY_SIZE; i++) {
+            rows.add(new Object[]{BigDecimal.ONE, "Seed " + i, large.getId(), user.getUser_id(), now});
+        }
+        jdbcTemplate.batchUpdate("""
+                insert into expense (amount, description, category_id, user_id, created_at, version)
+                values (?, ?, ?, ?, ?, 0)
+                """, rows);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userService.deleteAccount(user.getUser_id());
+    }
+
+    @Test
+    void creatingAnExpenseDoesNotDependOnCategorySize() {
+        Cost intoEmpty = measure(i -> create(empty.getId()));
+        Cost intoLarge = measure(i -> create(large.getId()));
+
+        assertComparable(intoLarge, intoEmpty);
+    }
+
+    @Test
+    void movingAnExpenseDoesNotDependOnCategorySize() {
+        List<Long> ids = IntStream.range(0, 2 * (WARMUP + MEASURED)).mapToObj(i -> create(empty.getId())).toList();
+
+        Cost intoOther = measure(i -> move(ids.get((int) i), other.getId()));
+        Cost intoLarge = measure(i -> move(ids.get((int) i + WARMUP + MEASURED), large.getId()));
+
+        assertComparable(intoLarge, intoOther);
+    }
+
+    private Long create(Long categoryId) {
+        return transactionTemplate.execute(status -> {
+            Expense expense = Expense.builder()
+                    .amount(Money.of("10.00"))
+                    .description("Lunch")
+                    .category(categoryRepository.findById(categoryId).orElseThrow())
+                    .build();
+            return expenseService.createExpense(expense, userService.getUserReference(user.getUser_id())).getId();
+        });
+    }
+
+    private void move(Long expenseId, Long categoryId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Expense changes = Expense.builder()
+                    .category(categoryRepository.findById(categoryId).orElseThrow())
+                    .build();
+            expenseService.updateExpense(expenseId, changes, null, userService.getUserReference(user.getUser_id()));
+        });
+    }
+
+    /**
+     * Average wall time and bytes allocated by the calling thread per operation, after a
+     * warmup that is not counted.
+     */
+    private static Cost measure(LongConsumer operation) {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.accept(i);
+        }
+        long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = WARMUP; i < WARMUP + MEASURED; i++) {
+            operation.accept(i);
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        return new Cost(nanos / MEASURED, allocated / MEASURED);
+    }
+
+    private static void assertComparable(Cost large, Cost small) {
+        assertThat(large.bytes()).as("bytes allocated per operation")
+                .isLessThan(2 * small.bytes() + 256 * 1024);
+        assertThat(large.nanos()).as("nanoseconds per operation")
+                .isLessThan(5 * small.nanos() + 5_000_000);
+    }
+
+    private record Cost(long nanos, long bytes) {
+    }
+}
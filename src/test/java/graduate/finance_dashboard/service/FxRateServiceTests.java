@@ -0,0 +1,163 @@
+package graduate.finance_dashboard.service;
+
+import graduate.finance_dashboard.TestUsers;
+import graduate.finance_dashboard.dto.SummaryBucket;
+import graduate.finance_dashboard.exception.ApiException;
+import graduate.finance_dashboard.model.Category;
+import graduate.finance_dashboard.model.User;
+import graduate.finance_dashboard.repository.CategoryRepository;
+import graduate.finance_dashboard.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+class FxRateServiceTests {
+
+    private static final LocalDateTime MARCH = LocalDate.of(2024, 3, 1).atStartOfDay();
+    private static final LocalDateTime APRIL = LocalDate.of(2024, 4, 1).atStartOfDay();
+
+    @Autowired
+    private FxRateService fxRateService;
+    @Autowired
+    private ExpenseSummaryService expenseSummaryService;
+    @Autowired
+    private ExpenseImportService expenseImportService;
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from fx_rate");
+        jdbcTemplate.update("insert into fx_rate (currency, rate_date, rate) values ('USD', date '2024-01-01', 1.10)");
+        jdbcTemplate.update("insert into fx_rate (currency, rate_date, rate) values ('USD', date '2024-03-10', 1.20)");
+        jdbcTemplate.update("insert into fx_rate (currency, rate_date, rate) values ('GBP', date '2024-01-01', 0.85)");
+        fxRateService.reload();
+
+        user = TestUsers.create(userRepository);
+        categoryRepository.save(Category.builder().name("Food").user(user).build());
+        categoryRepository.save(Category.builder().name("Travel").user(user).build());
+    }
+
+    @Test
+    void rateIsTheLatestOnOrBeforeTheDay() {
+        FxRates rates = new FxRates(1, "EUR", Map.of("USD", new FxRates.Series(
+                new int[]{day("2024-01-01"), day("2024-03-10")}, new double[]{1.10, 1.20})));
+
+        assertThat(rates.rate("USD", LocalDate.parse("2024-03-09"))).isEqualTo(1.10);
+        assertThat(rates.rate("USD", LocalDate.parse("2024-03-10"))).isEqualTo(1.20);
+        assertThat(rates.rate("USD", LocalDate.parse("2030-01-01"))).isEqualTo(1.20);
+        assertThat(rates.rate("EUR", LocalDate.parse("1999-01-01"))).isEqualTo(1.0);
+        assertThatThrownBy(() -> rates.rate("USD", LocalDate.parse("2023-12-31")))
+                .isInstanceOf(IllegalStateException.class);
+
+        FxRates.Factors toEuro = rates.factors("USD", "EUR");
+        assertThat(toEuro).isSameAs(rates.factors("USD", "EUR"));
+        assertThat(toEuro.convert(1100, day("2024-02-01"))).isEqualTo(1000);
+        assertThat(toEuro.convert(2400, day("2025-06-01"))).isEqualTo(2000);
+        assertThat(toEuro.on(day("2023-12-31"))).isNaN();
+    }
+
+    @Test
+    void reloadKeepsTheVersionUntilTheRatesChange() {
+        long version = fxRateService.current().version();
+
+        fxRateService.reload();
+        assertThat(fxRateService.current().version()).isEqualTo(version);
+
+        jdbcTemplate.update("insert into fx_rate (currency, rate_date, rate) values ('GBP', date '2024-06-01', 0.84)");
+        fxRateService.reload();
+        assertThat(fxRateService.current().version()).isEqualTo(version + 1);
+    }
+
+    @Test
+    void summariesConvertForeignExpensesAtTheRateOfTheirDay() {
+        importExpenses();
+
+        assertThat(expenseSummaryService.summarizeByCategory(user, MARCH, APRIL))
+                .extracting(summary -> summary.getCategoryName(), summary -> summary.getTotal(),
+                        summary -> summary.getCount(), summary -> summary.getMin(), summary -> summary.getMax())
+                .containsExactly(
+                        tuple("Food", new BigDecimal("40.00"), 3L, new BigDecimal("10.00"), new BigDecimal("20.00")),
+                        tuple("Travel", new BigDecimal("10.00"), 1L, new BigDecimal("10.00"), new BigDecimal("10.00")));
+        assertThat(expenseSummaryService.summarizeByPeriod(user, SummaryBucket.MONTH, MARCH, APRIL))
+                .extracting(summary -> summary.getPeriodStart(), summary -> summary.getTotal(), summary -> summary.getCount())
+                .containsExactly(tuple(LocalDate.of(2024, 3, 1), new BigDecimal("50.00"), 4L));
+        // Monthly totals convert 35.00 USD at March's mean factor, (9 / 1.10 + 22 / 1.20) / 31.
+        assertThat(expenseSummaryService.getMonthlyTotals(user, MARCH.toLocalDate(), MARCH.toLocalDate()))
+                .extracting(total -> total.getTotal(), total -> total.getCount())
+                .containsExactlyInAnyOrder(tuple(new BigDecimal("39.94"), 3L), tuple(new BigDecimal("10.00"), 1L));
+        assertThat(expenseRollupService.verify(user.getUser_id())).isEmpty();
+    }
+
+    @Test
+    void changingTheBaseCurrencyKeepsTheValueOfExpensesWithoutOne() {
+        importExpenses();
+
+        userService.setBaseCurrency(user.getUser_id(), "USD");
+
+        assertThat(userService.getBaseCurrency(user.getUser_id())).isEqualTo("USD");
+        assertThat(expenseSummaryService.summarizeByCategory(user, MARCH, APRIL))
+                .extracting(summary -> summary.getCategoryName(), summary -> summary.getTotal())
+                .containsExactly(tuple("Food", new BigDecimal("46.00")), tuple("Travel", new BigDecimal("12.00")));
+        // The rollup rows are kept; the former base-currency ones now convert from EUR.
+        assertThat(expenseSummaryService.getMonthlyTotals(user, MARCH.toLocalDate(), MARCH.toLocalDate()))
+                .extracting(total -> total.getTotal(), total -> total.getCount())
+                .containsExactlyInAnyOrder(tuple(new BigDecimal("46.71"), 3L), tuple(new BigDecimal("11.71"), 1L));
+        assertThat(expenseRollupService.verify(user.getUser_id())).isEmpty();
+        assertThatThrownBy(() -> userService.setBaseCurrency(user.getUser_id(), "JPY"))
+                .extracting(e -> ((ApiException) e).getStatus())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void expensesBeforeTheFirstRateCannotBeConverted() {
+        String ndjson = "{\"amount\": \"5.00\", \"currency\": \"USD\", \"category\": \"Food\", \"date\": \"2023-12-31\"}\n";
+        expenseImportService.importNdjson(user, new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertThatThrownBy(() -> expenseSummaryService.summarizeByCategory(user,
+                LocalDate.of(2023, 12, 1).atStartOfDay(), APRIL))
+                .extracting(e -> ((ApiException) e).getStatus())
+                .isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    private void importExpenses() {
+        String ndjson = """
+                {"amount": "10.00", "category": "Food", "date": "2024-03-04"}
+                {"amount": "11.00", "currency": "USD", "category": "Food", "date": "2024-03-04"}
+                {"amount": "24.00", "currency": "USD", "category": "Food", "date": "2024-03-12"}
+                {"amount": "8.50", "currency": "GBP", "category": "Travel", "date": "2024-03-12"}
+                {"amount": "1.00", "currency": "JPY", "category": "Travel", "date": "2024-03-12"}
+                """;
+        assertThat(expenseImportService.importNdjson(user,
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8))).getRejected()).isEqualTo(1);
+    }
+
+    private static int day(String date) {
+        return (int) LocalDate.parse(date).toEpochDay();
+    }
+}
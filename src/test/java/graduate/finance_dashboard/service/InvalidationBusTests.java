@@ -0,0 +1,157 @@
+package graduate.finance_dashboard.service;
+
+import graduate.finance_dashboard.TestUsers;
+import graduate.finance_dashboard.config.InMemoryInvalidationTransport;
+import graduate.finance_dashboard.model.Category;
+import graduate.finance_dashboard.model.User;
+import graduate.finance_dashboard.repository.UserRepository;
+import graduate.finance_dashboard.service.CollectionVersions.Collection;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "app.invalidation.transport=memory",
+        "app.invalidation.channel=bus_tests",
+        "app.invalidation.flush-ms=3600000",
+        "app.invalidation.heartbeat=1h"
+})
+class InvalidationBusTests {
+
+    @Autowired
+    private InvalidationBus bus;
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private CollectionVersions collectionVersions;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private MeterRegistry registry;
+
+    private final List<InvalidationMessage> sent = new CopyOnWriteArrayList<>();
+    private final InMemoryInvalidationTransport probe = new InMemoryInvalidationTransport("bus_tests");
+    private final String remote = UUID.randomUUID().toString();
+
+    private User owner;
+    private Category food;
+
+    @BeforeEach
+    void setUp() {
+        owner = TestUsers.create(userRepository);
+        food = categoryService.createCategory(Category.builder().name("Food").build(), owner);
+        categoryService.getCategoryById(food.getId());
+        categoryService.getCategoriesByUser(owner);
+        bus.flush();
+        probe.start(new InvalidationTransport.Receiver() {
+            @Override
+            public void receive(String payload) {
+                sent.add(InvalidationMessage.decode(payload));
+            }
+
+            @Override
+            public void resync() {
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        probe.close();
+    }
+
+    @Test
+    void coalescesCommittedWritesIntoOneBatch() {
+        categoryService.createCategory(Category.builder().name("Rent").build(), owner);
+        categoryService.createCategory(Category.builder().name("Books").build(), owner);
+        categoryService.updateCategory(food.getId(), Category.builder().name("Groceries").build(), owner);
+
+        bus.flush();
+
+        assertThat(sent).singleElement().satisfies(message -> {
+            assertThat(message.node()).isEqualTo(bus.getNode());
+            assertThat(message.entries()).containsExactlyInAnyOrder(
+                    InvalidationMessage.categories(owner.getUser_id()), InvalidationMessage.category(food.getId()));
+        });
+    }
+
+    @Test
+    void sendsNothingForRolledBackWrites() {
+        try {
+            categoryService.updateCategory(food.getId(), Category.builder().name("Food").build(), TestUsers.create(userRepository));
+        } catch (RuntimeException expected) {
+        }
+
+        bus.flush();
+
+        assertThat(sent).isEmpty();
+    }
+
+    @Test
+    void evictsWhatAnotherNodeChanged() {
+        jdbcTemplate.update("update category set name = ? where id = ?", "Groceries", food.getId());
+        String etag = collectionVersions.etag(Collection.CATEGORIES, owner.getUser_id());
+        assertThat(categoryService.getCategoryById(food.getId()).getName()).isEqualTo("Food");
+
+        receive(1, InvalidationMessage.category(food.getId()), InvalidationMessage.categories(owner.getUser_id()));
+
+        assertThat(categoryService.getCategoryById(food.getId()).getName()).isEqualTo("Groceries");
+        assertThat(collectionVersions.etag(Collection.CATEGORIES, owner.getUser_id())).isNotEqualTo(etag);
+        assertThat(categoryService.getCategoriesByUser(owner)).extracting(Category::getName).containsExactly("Groceries");
+        bus.flush();
+        assertThat(sent).as("replayed invalidations are not sent back").isEmpty();
+    }
+
+    @Test
+    void flushesEverythingWhenABatchGoesMissing() {
+        double resyncs = registry.get("cache.invalidation.resyncs").counter().count();
+        receive(1, InvalidationMessage.expenses(owner.getUser_id()));
+        assertThat(statementCount(() -> categoryService.getCategoryById(food.getId()))).isZero();
+
+        receive(3, InvalidationMessage.expenses(owner.getUser_id()));
+
+        assertThat(registry.get("cache.invalidation.resyncs").counter().count()).isEqualTo(resyncs + 1);
+        assertThat(statementCount(() -> categoryService.getCategoryById(food.getId()))).isPositive();
+    }
+
+    @Test
+    void flushesEverythingWhenAHeartbeatIsAheadOfTheLastBatch() {
+        receive(1, InvalidationMessage.expenses(owner.getUser_id()));
+        receive(1);
+        assertThat(statementCount(() -> categoryService.getCategoryById(food.getId()))).isZero();
+
+        receive(2);
+
+        assertThat(statementCount(() -> categoryService.getCategoryById(food.getId()))).isPositive();
+    }
+
+    private void receive(long seq, String... entries) {
+        bus.receive(new InvalidationMessage(remote, seq, Set.of(entries)).encode());
+    }
+
+    private long statementCount(Supplier<?> call) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        call.get();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,67 @@
+package graduate.finance_dashboard.service;
+
+import graduate.finance_dashboard.dto.AuthenticatedUser;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SessionTokenServiceTests {
+
+    private static final String SECRET = "dGVzdC1vbmx5LXNlc3Npb24tdG9rZW4tc2VjcmV0LTAwMDAwMA==";
+    private static final Instant NOW = Instant.parse("2025-03-01T12:00:00Z");
+
+    private final SessionTokenService service = new SessionTokenService(SECRET, Duration.ofHours(1),
+            Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    void verifiesTokensItIssued() {
+        String token = service.issue(42L).token();
+
+        assertThat(service.verify(token)).contains(new AuthenticatedUser(42L));
+    }
+
+    @Test
+    void rejectsTamperedTokens() {
+        String token = service.issue(42L).token();
+        String otherUser = service.issue(43L).token();
+
+        assertThat(service.verify(otherUser.substring(0, otherUser.indexOf('.')) + token.substring(token.indexOf('.'))))
+                .isEmpty();
+        assertThat(service.verify(token.substring(0, token.length() - 2))).isEmpty();
+        assertThat(service.verify("not-a-token")).isEmpty();
+    }
+
+    @Test
+    void rejectsTokensSignedWithAnotherKey() {
+        SessionTokenService other = new SessionTokenService(
+                "YW5vdGhlci1zZXNzaW9uLXRva2VuLXNlY3JldC0xMTExMTExMTE=", Duration.ofHours(1),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+
+        assertThat(service.verify(other.issue(42L).token())).isEmpty();
+    }
+
+    @Test
+    void rejectsExpiredTokens() {
+        String token = service.issue(42L).token();
+        SessionTokenService later = new SessionTokenService(SECRET, Duration.ofHours(1),
+                Clock.fixed(NOW.plus(Duration.ofHours(1)), ZoneOffset.UTC));
+
+        assertThat(later.verify(token)).isEmpty();
+    }
+
+    @Test
+    void generatesAKeyOnlyWhereThatIsAllowed() {
+        SessionTokenService generated = new SessionTokenService("", true, Duration.ofHours(1),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+        assertThat(generated.verify(generated.issue(42L).token())).contains(new AuthenticatedUser(42L));
+
+        assertThatThrownBy(() -> new SessionTokenService(" ", false, Duration.ofHours(1), Clock.systemUTC()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,63 @@
+package graduate.finance_dashboard.service;
+
+import graduate.finance_dashboard.TestUsers;
+import graduate.finance_dashboard.dto.LoginRequest;
+import graduate.finance_dashboard.exception.ApiException;
+import graduate.finance_dashboard.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "app.security.bcrypt-strength=5",
+        "app.security.rate-limit.per-email-per-minute=3"
+})
+class UserServiceTests {
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+
+    private String email;
+
+    @BeforeEach
+    void setUp() {
+        email = TestUsers.create(userRepository, new BCryptPasswordEncoder(4).encode("secret")).getEmail();
+    }
+
+    @Test
+    void loginUpgradesHashesMadeWithALowerCost() {
+        userService.login(login("secret"), "10.0.0.1");
+
+        String stored = userRepository.findByEmail(email).orElseThrow().getPassword();
+        assertThat(stored).startsWith("$2a$05$");
+        assertThat(new BCryptPasswordEncoder().matches("secret", stored)).isTrue();
+    }
+
+    @Test
+    void repeatedAttemptsForOneEmailAreRejectedBeforeHashing() {
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> userService.login(login("wrong"), "10.0.0.2"))
+                    .extracting(e -> ((ApiException) e).getStatus())
+                    .isEqualTo(HttpStatus.UNAUTHORIZED);
+        }
+
+        assertThatThrownBy(() -> userService.login(login("secret"), "10.0.0.3"))
+                .extracting(e -> ((ApiException) e).getStatus())
+                .isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    private LoginRequest login(String password) {
+        LoginRequest request = new LoginRequest();
+        request.setEmail(email);
+        request.setPassword(password);
+        return request;
+    }
+}